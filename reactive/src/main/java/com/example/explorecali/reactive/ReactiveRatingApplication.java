@@ -0,0 +1,12 @@
+package com.example.explorecali.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveRatingApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveRatingApplication.class, args);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.explorecali.reactive.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Maps errors to the same problem details as the main application.
+ */
+@ControllerAdvice
+@Slf4j
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public final Mono<ResponseEntity<Object>> handleNoSuchElementException(NoSuchElementException ex,
+                                                                           ServerWebExchange exchange) {
+        logException(ex);
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        return createResponseEntity(pd, null, HttpStatus.NOT_FOUND, exchange);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public final Mono<ResponseEntity<Object>> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, ServerWebExchange exchange) {
+        logException(ex);
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The request conflicts with existing data, such as a customer rating a tour twice");
+        return createResponseEntity(pd, null, HttpStatus.CONFLICT, exchange);
+    }
+
+    private void logException(Exception ex) {
+        log.error("Caught Exception", ex);
+    }
+}
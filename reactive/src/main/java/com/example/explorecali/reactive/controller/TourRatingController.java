@@ -0,0 +1,89 @@
+package com.example.explorecali.reactive.controller;
+
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.reactive.service.TourRatingService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The rating endpoints of the main application, served from the event loop. Listing a tour's
+ * ratings streams them as newline delimited JSON when the client asks for it.
+ */
+@RestController
+@Slf4j
+@RequestMapping(path = "/tours/{tourId}/ratings")
+public class TourRatingController {
+    private TourRatingService tourRatingService;
+
+    public TourRatingController(TourRatingService tourRatingService) {
+        this.tourRatingService = tourRatingService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<RatingDto> createTourRating(@PathVariable(value = "tourId") int tourId,
+                                            @RequestBody @Valid RatingDto ratingDto) {
+        log.info("POST /tours/{}/ratings ", tourId);
+        return tourRatingService.createNew(tourId, ratingDto.getCustomerId(), ratingDto.getScore(),
+                ratingDto.getComment()).map(TourRatingService::toDto);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<RatingDto> getAllRatingsForTour(@PathVariable(value = "tourId") int tourId) {
+        log.info("GET /tours/{}/ratings", tourId);
+        return tourRatingService.lookupRatings(tourId);
+    }
+
+    @GetMapping("/average")
+    public Mono<Map<String, Double>> getAverage(@PathVariable(value = "tourId") int tourId) {
+        log.info("GET /tours/{}/ratings/average", tourId);
+        return tourRatingService.getAverageScore(tourId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(average -> Collections.singletonMap("average", average.orElse(null)));
+    }
+
+    @PutMapping
+    public Mono<RatingDto> updateWithPut(@PathVariable(value = "tourId") int tourId,
+                                         @RequestBody @Valid RatingDto ratingDto) {
+        log.info("PUT /tours/{}/ratings", tourId);
+        return tourRatingService.update(tourId, ratingDto.getCustomerId(), ratingDto.getScore(),
+                ratingDto.getComment()).map(TourRatingService::toDto);
+    }
+
+    @PatchMapping
+    public Mono<RatingDto> updateWithPatch(@PathVariable(value = "tourId") int tourId,
+                                           @RequestBody @Valid RatingDto ratingDto) {
+        log.info("PATCH /tours/{}/ratings", tourId);
+        return tourRatingService.updateSome(tourId, ratingDto.getCustomerId(),
+                Optional.ofNullable(ratingDto.getScore()),
+                Optional.ofNullable(ratingDto.getComment())).map(TourRatingService::toDto);
+    }
+
+    @DeleteMapping("/{customerId}")
+    public Mono<Void> delete(@PathVariable(value = "tourId") int tourId,
+                             @PathVariable(value = "customerId") int customerId) {
+        log.info("DELETE /tours/{}/ratings/{}", tourId, customerId);
+        return tourRatingService.delete(tourId, customerId);
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BatchRatingReport> createManyTourRatings(@PathVariable(value = "tourId") int tourId,
+                                                         @RequestParam(value = "score") int score,
+                                                         @RequestBody List<Integer> customers) {
+        log.info("POST /tours/{}/ratings/batch", tourId);
+        return tourRatingService.rateMany(tourId, score, customers);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.explorecali.reactive.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The columns of a tour that the rating API needs.
+ */
+@Table("tour")
+@Data
+@NoArgsConstructor
+public class Tour {
+    @Id
+    private Integer id;
+
+    private String title;
+
+    public Tour(String title) {
+        this.title = title;
+    }
+}
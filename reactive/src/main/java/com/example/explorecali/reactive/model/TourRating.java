@@ -0,0 +1,40 @@
+package com.example.explorecali.reactive.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the tour_rating table, referencing its tour by id.
+ */
+@Table("tour_rating")
+@Data
+@NoArgsConstructor
+public class TourRating {
+    @Id
+    private Integer id;
+
+    private Integer tourId;
+
+    private Integer customerId;
+
+    private Integer score;
+
+    private String comment;
+
+    /**
+     * Create a fully initialized TourRating.
+     *
+     * @param tourId     the tour identifier
+     * @param customerId the customer identifier
+     * @param score      Integer score (1-5)
+     * @param comment    Optional comment from the customer
+     */
+    public TourRating(Integer tourId, Integer customerId, Integer score, String comment) {
+        this.tourId = tourId;
+        this.customerId = customerId;
+        this.score = score;
+        this.comment = comment;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.explorecali.reactive.repository;
+
+import com.example.explorecali.reactive.model.TourRating;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface TourRatingRepository extends ReactiveCrudRepository<TourRating, Integer> {
+
+    /**
+     * Lookup the ratings of a tour in id order, along the (tour_id, id) index.
+     *
+     * @param tourId is the tour Identifier
+     * @return the ratings as they are read
+     */
+    Flux<TourRating> findByTourIdOrderById(Integer tourId);
+
+    Mono<TourRating> findByTourIdAndCustomerId(Integer tourId, Integer customerId);
+
+    @Query("select avg(cast(score as double)) from tour_rating where tour_id = :tourId")
+    Mono<Double> averageScore(Integer tourId);
+
+    /**
+     * Find which of the given customers already rated a tour.
+     *
+     * @param tourId      is the tour Identifier
+     * @param customerIds the customers to check
+     * @return the customers among them with a rating for the tour
+     */
+    @Query("select customer_id from tour_rating where tour_id = :tourId and customer_id in (:customerIds)")
+    Flux<Integer> findRatedCustomerIds(Integer tourId, Collection<Integer> customerIds);
+}
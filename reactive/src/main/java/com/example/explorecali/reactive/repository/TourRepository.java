@@ -0,0 +1,7 @@
+package com.example.explorecali.reactive.repository;
+
+import com.example.explorecali.reactive.model.Tour;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface TourRepository extends ReactiveCrudRepository<Tour, Integer> {
+}
@@ -0,0 +1,56 @@
+package com.example.explorecali.reactive.service;
+
+import com.example.explorecali.reactive.model.Tour;
+import com.example.explorecali.reactive.repository.TourRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds an empty embedded database with the tours of the main application's import file, in
+ * the same order so they get the same ids. Against a database the main application owns,
+ * leave explorecali.reactive.tour-import-file unset.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty("explorecali.reactive.tour-import-file")
+public class TourImporter implements ApplicationRunner {
+    private TourRepository tourRepository;
+    private ObjectMapper objectMapper;
+    private String importFile;
+
+    public TourImporter(TourRepository tourRepository, ObjectMapper objectMapper,
+                        @Value("${explorecali.reactive.tour-import-file}") String importFile) {
+        this.tourRepository = tourRepository;
+        this.objectMapper = objectMapper;
+        this.importFile = importFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        File file = new File(importFile);
+        if (!file.exists()) {
+            log.warn("Tour import file {} not found, no tours imported", file.getAbsolutePath());
+            return;
+        }
+        List<Tour> tours = new ArrayList<>();
+        for (JsonNode tour : objectMapper.readTree(file)) {
+            tours.add(new Tour(tour.get("title").asText()));
+        }
+        long imported = tourRepository.count()
+                .flatMap(count -> count > 0 ? tourRepository.count()
+                        : tourRepository.saveAll(tours).then(tourRepository.count()))
+                .block();
+        log.info("Persisted Tours = {}", imported);
+    }
+}
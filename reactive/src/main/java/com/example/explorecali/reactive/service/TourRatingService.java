@@ -0,0 +1,140 @@
+package com.example.explorecali.reactive.service;
+
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.reactive.model.TourRating;
+import com.example.explorecali.reactive.repository.TourRatingRepository;
+import com.example.explorecali.reactive.repository.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tour rating operations of the main application's TourRatingService, as non-blocking
+ * pipelines. Nothing here waits on the database; each method returns a publisher that
+ * does the work when the caller subscribes.
+ */
+@Service
+@Slf4j
+public class TourRatingService {
+    private TourRatingRepository tourRatingRepository;
+    private TourRepository tourRepository;
+
+    public TourRatingService(TourRatingRepository tourRatingRepository, TourRepository tourRepository) {
+        this.tourRatingRepository = tourRatingRepository;
+        this.tourRepository = tourRepository;
+    }
+
+    @Transactional
+    public Mono<TourRating> createNew(int tourId, Integer customerId, Integer score, String comment) {
+        log.info("Create a tour rating for tour {} and customer {}", tourId, customerId);
+        return verifyTourExists(tourId)
+                .then(tourRatingRepository.save(new TourRating(tourId, customerId, score, comment)));
+    }
+
+    public Flux<RatingDto> lookupRatings(int tourId) {
+        log.info("Lookup ratings for tour {}", tourId);
+        return verifyTourExists(tourId)
+                .thenMany(tourRatingRepository.findByTourIdOrderById(tourId))
+                .map(TourRatingService::toDto);
+    }
+
+    /**
+     * Compute the average score of a tour.
+     *
+     * @param tourId the tour identifier
+     * @return the average score, or empty when the tour has no ratings
+     */
+    public Mono<Double> getAverageScore(int tourId) {
+        return verifyTourExists(tourId).then(tourRatingRepository.averageScore(tourId));
+    }
+
+    @Transactional
+    public Mono<TourRating> update(int tourId, Integer customerId, Integer score, String comment) {
+        log.info("Update tour {} customer {}", tourId, customerId);
+        return verifyTourRating(tourId, customerId).flatMap(rating -> {
+            rating.setScore(score);
+            rating.setComment(comment);
+            return tourRatingRepository.save(rating);
+        });
+    }
+
+    @Transactional
+    public Mono<TourRating> updateSome(int tourId, Integer customerId, Optional<Integer> score,
+                                       Optional<String> comment) {
+        log.info("Update some of tour {} customer {}", tourId, customerId);
+        return verifyTourRating(tourId, customerId).flatMap(rating -> {
+            score.ifPresent(rating::setScore);
+            comment.ifPresent(rating::setComment);
+            return tourRatingRepository.save(rating);
+        });
+    }
+
+    @Transactional
+    public Mono<Void> delete(int tourId, Integer customerId) {
+        log.info("Delete rating for tour {} customer {}", tourId, customerId);
+        return verifyTourRating(tourId, customerId).flatMap(tourRatingRepository::delete);
+    }
+
+    /**
+     * Rate a tour for many customers in one transaction, skipping and reporting customers
+     * that already rated it or appear twice in the request, like the main application.
+     *
+     * @param tourId    the tour identifier
+     * @param score     the score given by every customer
+     * @param customers the customer identifiers
+     * @return the outcome for each customer
+     */
+    @Transactional
+    public Mono<BatchRatingReport> rateMany(int tourId, int score, List<Integer> customers) {
+        log.info("Rate tour {} for {} customers", tourId, customers.size());
+        Mono<Set<Integer>> rated = customers.isEmpty() ? Mono.just(Set.of())
+                : tourRatingRepository.findRatedCustomerIds(tourId, customers).collect(Collectors.toSet());
+        return verifyTourExists(tourId).then(rated).flatMap(alreadyRated -> {
+            Set<Integer> requested = new HashSet<>();
+            List<TourRating> ratings = new ArrayList<>(customers.size());
+            List<BatchRatingReport.CustomerOutcome> outcomes = new ArrayList<>(customers.size());
+            for (Integer c : customers) {
+                BatchRatingReport.Outcome outcome;
+                if (alreadyRated.contains(c)) {
+                    outcome = BatchRatingReport.Outcome.ALREADY_RATED;
+                } else if (!requested.add(c)) {
+                    outcome = BatchRatingReport.Outcome.DUPLICATE_IN_REQUEST;
+                } else {
+                    outcome = BatchRatingReport.Outcome.CREATED;
+                    ratings.add(new TourRating(tourId, c, score, null));
+                }
+                outcomes.add(new BatchRatingReport.CustomerOutcome(c, outcome));
+            }
+            return tourRatingRepository.saveAll(ratings)
+                    .then(Mono.just(new BatchRatingReport(ratings.size(), customers.size() - ratings.size(),
+                            outcomes)));
+        });
+    }
+
+    public Mono<Void> verifyTourExists(int tourId) {
+        return tourRepository.existsById(tourId)
+                .flatMap(exists -> exists ? Mono.<Void>empty()
+                        : Mono.error(new NoSuchElementException("Tour does not exist " + tourId)));
+    }
+
+    public Mono<TourRating> verifyTourRating(int tourId, int customerId) {
+        return tourRatingRepository.findByTourIdAndCustomerId(tourId, customerId)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Tour-Rating pair for request: "
+                        + tourId + " for customer " + customerId)));
+    }
+
+    public static RatingDto toDto(TourRating rating) {
+        return new RatingDto(rating.getScore(), rating.getComment(), rating.getCustomerId());
+    }
+}
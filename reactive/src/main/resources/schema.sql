@@ -0,0 +1,16 @@
+-- The tables the rating API uses, as the main application's JPA mapping creates them.
+create table if not exists tour (
+    id integer generated by default as identity primary key,
+    title varchar(255) not null
+);
+
+create table if not exists tour_rating (
+    id integer generated by default as identity primary key,
+    tour_id integer not null references tour (id),
+    customer_id integer,
+    score integer not null,
+    comment varchar(255),
+    constraint uk_tour_rating_customer_id_tour_id unique (customer_id, tour_id)
+);
+
+create index if not exists idx_tour_rating_tour_id_id on tour_rating (tour_id, id);
@@ -0,0 +1,103 @@
+package com.example.explorecali.reactive.controller;
+
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.RatingDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Runs the rating endpoints against the embedded database, seeded with the imported tours.
+ * Each test rates its own tour, so they do not see each other's ratings.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class TourRatingControllerTest {
+    private static final int UNKNOWN_TOUR_ID = 999;
+    private static final int CUSTOMER_ID = 1000;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void testCreateListAndAverage() {
+        String url = "/tours/1/ratings";
+        create(url, new RatingDto(3, "comment", CUSTOMER_ID)).expectStatus().isCreated()
+                .expectBody(RatingDto.class).isEqualTo(new RatingDto(3, "comment", CUSTOMER_ID));
+        create(url, new RatingDto(5, null, CUSTOMER_ID + 1)).expectStatus().isCreated();
+
+        client.get().uri(url).exchange()
+                .expectStatus().isOk()
+                .expectBodyList(RatingDto.class)
+                .isEqualTo(List.of(new RatingDto(3, "comment", CUSTOMER_ID), new RatingDto(5, null, CUSTOMER_ID + 1)));
+        client.get().uri(url).accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(RatingDto.class).hasSize(2);
+        client.get().uri(url + "/average").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.average").isEqualTo(4.0);
+    }
+
+    @Test
+    void testAverageWithoutRatings() {
+        client.get().uri("/tours/2/ratings/average").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.average").isEmpty();
+    }
+
+    @Test
+    void testUpdatePatchAndDelete() {
+        String url = "/tours/3/ratings";
+        create(url, new RatingDto(1, "bad", CUSTOMER_ID)).expectStatus().isCreated();
+
+        client.put().uri(url).bodyValue(new RatingDto(2, "better", CUSTOMER_ID)).exchange()
+                .expectStatus().isOk()
+                .expectBody(RatingDto.class).isEqualTo(new RatingDto(2, "better", CUSTOMER_ID));
+        client.patch().uri(url).bodyValue(new RatingDto(4, null, CUSTOMER_ID)).exchange()
+                .expectStatus().isOk()
+                .expectBody(RatingDto.class).isEqualTo(new RatingDto(4, "better", CUSTOMER_ID));
+        client.delete().uri(url + "/" + CUSTOMER_ID).exchange().expectStatus().isOk();
+        client.delete().uri(url + "/" + CUSTOMER_ID).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testRateMany() {
+        String url = "/tours/4/ratings";
+        create(url, new RatingDto(5, null, CUSTOMER_ID)).expectStatus().isCreated();
+
+        BatchRatingReport report = client.post().uri(url + "/batch?score=3")
+                .bodyValue(List.of(CUSTOMER_ID, CUSTOMER_ID + 1, CUSTOMER_ID + 1)).exchange()
+                .expectStatus().isCreated()
+                .expectBody(BatchRatingReport.class).returnResult().getResponseBody();
+
+        assertThat(report.created(), is(1));
+        assertThat(report.outcomes(), is(List.of(
+                new BatchRatingReport.CustomerOutcome(CUSTOMER_ID, BatchRatingReport.Outcome.ALREADY_RATED),
+                new BatchRatingReport.CustomerOutcome(CUSTOMER_ID + 1, BatchRatingReport.Outcome.CREATED),
+                new BatchRatingReport.CustomerOutcome(CUSTOMER_ID + 1, BatchRatingReport.Outcome.DUPLICATE_IN_REQUEST))));
+        client.get().uri(url).exchange().expectBodyList(RatingDto.class).hasSize(2);
+    }
+
+    @Test
+    void testErrors() {
+        create("/tours/" + UNKNOWN_TOUR_ID + "/ratings", new RatingDto(3, null, CUSTOMER_ID))
+                .expectStatus().isNotFound();
+        client.get().uri("/tours/" + UNKNOWN_TOUR_ID + "/ratings").exchange().expectStatus().isNotFound();
+        create("/tours/5/ratings", new RatingDto(6, null, CUSTOMER_ID)).expectStatus().isBadRequest();
+        create("/tours/5/ratings", new RatingDto(3, null, null)).expectStatus().isBadRequest();
+        create("/tours/5/ratings", new RatingDto(3, null, CUSTOMER_ID)).expectStatus().isCreated();
+        create("/tours/5/ratings", new RatingDto(4, null, CUSTOMER_ID)).expectStatus().isEqualTo(409);
+    }
+
+    private WebTestClient.ResponseSpec create(String url, RatingDto rating) {
+        return client.post().uri(url).bodyValue(rating).exchange();
+    }
+}
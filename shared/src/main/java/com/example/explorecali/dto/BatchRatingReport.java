@@ -0,0 +1,20 @@
+package com.example.explorecali.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of rating a tour for many customers at once.
+ *
+ * @param created  number of ratings inserted
+ * @param skipped  number of customers that were not rated
+ * @param outcomes what happened for each customer, in request order
+ */
+public record BatchRatingReport(int created, int skipped, List<CustomerOutcome> outcomes) {
+
+    public enum Outcome {
+        CREATED, ALREADY_RATED, DUPLICATE_IN_REQUEST
+    }
+
+    public record CustomerOutcome(Integer customerId, Outcome outcome) {
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.explorecali.dto;
 
-import com.example.explorecali.model.TourRating;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +7,10 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * A tour rating as the APIs exchange it. The servlet application and the reactive module both
+ * compile this one class, so they validate ratings by the same constraints.
+ */
 @Data
 @NoArgsConstructor
 public class RatingDto {
@@ -34,10 +37,4 @@ public class RatingDto {
         this.comment = comment;
         this.customerId = customerId;
     }
-
-    public RatingDto(TourRating entity) {
-        this.score = entity.getScore();
-        this.comment = entity.getComment();
-        this.customerId = entity.getCustomerId();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.ExploreCaliApplication;
+import com.example.explorecali.service.TourRatingAggregateService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application against its own embedded H2 database, without a web server unless
+ * a load test asks for one, and seeds it with ratings for the benchmarks.
+ */
+final class BenchmarkApplication {
+    static final int TOUR_ID = 1;
+    private static final int SEED_BATCH = 10_000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        return start(WebApplicationType.NONE, database, properties);
+    }
+
+    /**
+     * Start the application with its web server on a random port, found in the local.server.port property.
+     */
+    static ConfigurableApplicationContext startServer(String database, String... properties) {
+        List<String> all = new ArrayList<>(List.of(properties));
+        all.add("server.port=0");
+        return start(WebApplicationType.SERVLET, database, all.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String database,
+                                                        String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "logging.file.name=",
+                "logging.level.root=WARN",
+                "logging.level.com.example.explorecali=WARN"));
+        all.addAll(List.of(properties));
+        // as arguments rather than default properties, so they win over application.properties
+        return new SpringApplicationBuilder(ExploreCaliApplication.class)
+                .web(type)
+                .run(all.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * Insert ratings for TOUR_ID with plain JDBC batches, then bring the id sequence and
+     * the rating aggregates in line with the seeded rows.
+     *
+     * @param context the running application
+     * @param ratings the number of ratings to insert, customers 1..ratings
+     */
+    static void seedRatings(ConfigurableApplicationContext context, int ratings) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 1; i <= ratings; i++) {
+            batch.add(new Object[]{i, TOUR_ID, i, i % 6, i % 10 == 0 ? "comment " + i : null});
+            if (batch.size() == SEED_BATCH || i == ratings) {
+                jdbc.batchUpdate("insert into tour_rating (id, tour_id, customer_id, score, comment) values (?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+        jdbc.execute("alter sequence tour_rating_seq restart with " + (ratings + 1));
+        context.getBean(TourRatingAggregateService.class).rebuild();
+    }
+}
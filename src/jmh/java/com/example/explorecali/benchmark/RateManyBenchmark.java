@@ -0,0 +1,53 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.service.TourRatingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * TourRatingService.rateMany for different batch sizes. Every invocation rates the tour for
+ * customers that have not rated it yet; divide the score by batchSize for the cost per rating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateManyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TourRatingService service;
+    private List<Integer> customers;
+    private int nextCustomer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("rate-many");
+        service = context.getBean(TourRatingService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextCustomers() {
+        customers = IntStream.range(nextCustomer, nextCustomer + batchSize).boxed().toList();
+        nextCustomer += batchSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BatchRatingReport rateMany() {
+        return service.rateMany(BenchmarkApplication.TOUR_ID, 4, customers);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.model.TourRating;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping TourRating entities to RatingDto and serializing the list, as the ratings endpoint does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingDtoBenchmark {
+
+    @Param({"100", "10000"})
+    private int ratings;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<TourRating> entities;
+    private List<RatingDto> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = IntStream.range(0, ratings)
+                .mapToObj(i -> new TourRating(null, i, i % 6, i % 10 == 0 ? "comment " + i : null))
+                .toList();
+        dtos = map();
+    }
+
+    @Benchmark
+    public List<RatingDto> map() {
+        return entities.stream().map(RatingDto::new).toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.dto.RatingDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding a ratings list as JSON, CBOR and Smile, plain and gzipped, as the ratings endpoint
+ * does for each Accept and Accept-Encoding, and decoding it again as a client would. The bytes
+ * on the wire for each encoding are printed when a trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatingEncodingBenchmark {
+
+    public enum Encoding {
+        JSON(new JsonFactory()), CBOR(new CBORFactory()), SMILE(new SmileFactory());
+
+        private final JsonFactory factory;
+
+        Encoding(JsonFactory factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"100", "10000"})
+    private int ratings;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Encoding encoding;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private List<RatingDto> dtos;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper(encoding.factory);
+        reader = objectMapper.readerFor(RatingDto[].class);
+        dtos = IntStream.range(0, ratings)
+                .mapToObj(i -> new RatingDto(i % 6, i % 10 == 0 ? "comment " + i : null, i))
+                .toList();
+        encoded = serialize();
+        System.out.printf("%n%s, %d ratings: %d bytes, %d gzipped%n", encoding, ratings, encoded.length,
+                serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, dtos);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public RatingDto[] deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.repository.TourRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * HTTP load test of the rating endpoints in platform-thread and virtual-thread mode. JMH
+ * measures a method call, not thousands of clients waiting on a server, so this is a plain
+ * main class. For each mode it starts the application on a random port, runs a warm-up
+ * round, then has load.clients concurrent clients each send load.requests request pairs
+ * (rate a tour as a new customer, then read the tour's average) and prints throughput and
+ * latency percentiles. Admission control is switched off so every request reaches the
+ * handlers and only the threading model differs.
+ * <p>
+ * A mode that is a URL targets a server that is already running, such as the reactive module
+ * on http://localhost:8082, rating tours 1 to load.tours. With load.reads-only=true the
+ * measured round lists a tour's ratings and reads its average instead of rating it.
+ * <p>
+ * Run with: ./mvnw -Pbenchmark test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.explorecali.benchmark.RatingLoadTest -Dload.clients=2000
+ * -Dload.modes=platform,virtual,http://localhost:8082
+ */
+public final class RatingLoadTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private RatingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("load.clients", 2000);
+        int requests = Integer.getInteger("load.requests", 10);
+        boolean readsOnly = Boolean.getBoolean("load.reads-only");
+        List<Result> results = new ArrayList<>();
+        for (String mode : System.getProperty("load.modes", "platform,virtual").split(",")) {
+            results.add(mode.startsWith("http")
+                    ? run(mode, mode, IntStream.rangeClosed(1, Integer.getInteger("load.tours", 30)).toArray(),
+                    clients, requests, readsOnly)
+                    : run(mode, clients, requests, readsOnly));
+        }
+        System.out.printf("%n%-22s %8s %10s %9s %9s %9s %9s  %s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "failures");
+        for (Result result : results) {
+            System.out.println(result);
+        }
+    }
+
+    private static Result run(String mode, int clients, int requests, boolean readsOnly) throws Exception {
+        List<String> properties = new ArrayList<>(List.of("explorecali.admission.enabled=false"));
+        if (mode.equals("virtual")) {
+            properties.add("spring.profiles.active=virtual-threads");
+        } else if (!mode.equals("platform")) {
+            throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+        try (ConfigurableApplicationContext context =
+                     BenchmarkApplication.startServer("load-" + mode, properties.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            int[] tourIds = context.getBean(TourRepository.class).findAll().stream()
+                    .mapToInt(Tour::getId).toArray();
+            return run(mode, baseUrl, tourIds, clients, requests, readsOnly);
+        }
+    }
+
+    private static Result run(String mode, String baseUrl, int[] tourIds, int clients, int requests, boolean readsOnly)
+            throws InterruptedException {
+        Round round = new Round(baseUrl, tourIds);
+        round.run(Math.max(1, clients / 10), requests, 0, false);
+        return round.run(clients, requests, 1, readsOnly).result(mode);
+    }
+
+    /**
+     * One burst of clients, all released at once. Customer ids are unique per round and
+     * client, so every rating is a new one.
+     */
+    private static class Round {
+        private final String baseUrl;
+        private final int[] tourIds;
+        private long[] latencies;
+        private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+        private final AtomicInteger completed = new AtomicInteger();
+        private long elapsedNanos;
+        private int clients;
+
+        Round(String baseUrl, int[] tourIds) {
+            this.baseUrl = baseUrl;
+            this.tourIds = tourIds;
+        }
+
+        Round run(int clients, int requests, int round, boolean readsOnly) throws InterruptedException {
+            this.clients = clients;
+            latencies = new long[clients * requests * 2];
+            failures.clear();
+            completed.set(0);
+            CountDownLatch start = new CountDownLatch(1);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build()) {
+                for (int c = 0; c < clients; c++) {
+                    int client = c;
+                    executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < requests; i++) {
+                            int tourId = tourIds[(client + i) % tourIds.length];
+                            int customerId = round * 10_000_000 + client * requests + i;
+                            int slot = (client * requests + i) * 2;
+                            HttpRequest.Builder ratings = HttpRequest.newBuilder(
+                                    URI.create(baseUrl + "/tours/" + tourId + "/ratings"));
+                            latencies[slot] = send(http, readsOnly ? ratings.GET() : ratings
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString("{\"score\":" + (1 + customerId % 5)
+                                            + ",\"comment\":\"load\",\"customerId\":" + customerId + "}")));
+                            latencies[slot + 1] = send(http, HttpRequest.newBuilder(
+                                            URI.create(baseUrl + "/tours/" + tourId + "/ratings/average"))
+                                    .GET());
+                        }
+                        return null;
+                    });
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.HOURS);
+                elapsedNanos = System.nanoTime() - begin;
+            }
+            return this;
+        }
+
+        private long send(HttpClient http, HttpRequest.Builder request) {
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request.timeout(TIMEOUT).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 == 2) {
+                    completed.incrementAndGet();
+                } else {
+                    failures.computeIfAbsent(Integer.toString(response.statusCode()), k -> new AtomicInteger())
+                            .incrementAndGet();
+                }
+            } catch (Exception e) {
+                failures.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicInteger()).incrementAndGet();
+            }
+            return System.nanoTime() - begin;
+        }
+
+        Result result(String mode) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return new Result(mode, clients, completed.get() / (elapsedNanos / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted[sorted.length - 1] / 1e6, new TreeMap<>(failures));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1e6;
+        }
+    }
+
+    private record Result(String mode, int clients, double throughput, double p50, double p99, double p999,
+                          double max, Map<String, AtomicInteger> failures) {
+        @Override
+        public String toString() {
+            return String.format("%-22s %8d %10.0f %9.1f %9.1f %9.1f %9.1f  %s",
+                    mode, clients, throughput, p50, p99, p999, max, failures.isEmpty() ? "none" : failures);
+        }
+    }
+}
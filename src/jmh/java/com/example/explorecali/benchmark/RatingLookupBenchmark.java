@@ -0,0 +1,80 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.TourRating;
+import com.example.explorecali.repository.TourRatingRepository;
+import com.example.explorecali.repository.TourRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating and tour lookups with and without the schema indexes. With indexed=false the
+ * indexes, the unique constraint and the foreign key are dropped after seeding, to show the
+ * full scans they replace. Use -p ratings=10000000 for the 10M row comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingLookupBenchmark {
+
+    @Param({"100000"})
+    private int ratings;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private TourRatingRepository tourRatingRepository;
+    private TourRepository tourRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("rating-lookup-" + indexed);
+        BenchmarkApplication.seedRatings(context, ratings);
+        if (!indexed) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            jdbc.execute("alter table tour_rating drop constraint uk_tour_rating_customer_id_tour_id");
+            // H2 backs foreign keys with an index of its own, so drop the tour_id foreign key too
+            jdbc.queryForList("select constraint_name from information_schema.table_constraints " +
+                            "where table_name = 'TOUR_RATING' and constraint_type = 'FOREIGN KEY'", String.class)
+                    .forEach(fk -> jdbc.execute("alter table tour_rating drop constraint " + fk));
+            jdbc.execute("drop index idx_tour_rating_tour_id_id");
+            jdbc.execute("drop index idx_tour_difficulty");
+        }
+        tourRatingRepository = context.getBean(TourRatingRepository.class);
+        tourRepository = context.getBean(TourRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<TourRating> findByTourIdAndCustomerId() {
+        return tourRatingRepository.findByTourIdAndCustomerId(BenchmarkApplication.TOUR_ID,
+                ThreadLocalRandom.current().nextInt(1, ratings + 1));
+    }
+
+    @Benchmark
+    public Set<Integer> findRatedCustomerIds() {
+        int first = ThreadLocalRandom.current().nextInt(1, ratings - 100);
+        return tourRatingRepository.findRatedCustomerIds(BenchmarkApplication.TOUR_ID,
+                List.of(first, first + 10, first + 50, first + 100, ratings + 1));
+    }
+
+    @Benchmark
+    public int findByDifficulty() {
+        return tourRepository.findByDifficulty(Difficulty.Medium).size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.dto.KeysetPage;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.service.TourRatingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of TourRatingService against a tour with a configurable number of ratings.
+ * Larger sizes can be passed on the command line, e.g. -p ratings=10000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int ratings;
+
+    private ConfigurableApplicationContext context;
+    private TourRatingService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("rating-service");
+        BenchmarkApplication.seedRatings(context, ratings);
+        service = context.getBean(TourRatingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Double getAverageScore() {
+        return service.getAverageScore(BenchmarkApplication.TOUR_ID);
+    }
+
+    @Benchmark
+    public List<RatingDto> lookupRatings() {
+        return service.lookupRatings(BenchmarkApplication.TOUR_ID);
+    }
+
+    @Benchmark
+    public KeysetPage<RatingDto> lookupRatingsFirstPage() {
+        return service.lookupRatings(BenchmarkApplication.TOUR_ID, null, 100);
+    }
+}
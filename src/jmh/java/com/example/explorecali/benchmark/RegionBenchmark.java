@@ -0,0 +1,29 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.model.Region;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Region.findByLabel, called once per imported tour.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionBenchmark {
+
+    private final String[] labels = {"Central Coast", "Southern California", "Northern California", "Varies",
+            "central coast", "Unknown"};
+
+    @Benchmark
+    public void findByLabel(Blackhole blackhole) {
+        for (String label : labels) {
+            blackhole.consume(Region.findByLabel(label));
+        }
+    }
+}
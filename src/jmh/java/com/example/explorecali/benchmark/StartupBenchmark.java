@@ -0,0 +1,143 @@
+package com.example.explorecali.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Startup time of the packaged application in each mode of the fast-startup build profile.
+ * Every run starts a fresh JVM and reports the time from launching it until
+ * /actuator/health/readiness answers 200, which is after the startup import, then the latency
+ * of the first request for a tour's ratings and of the first request for the OpenAPI document.
+ * Prints the median of startup.runs runs per mode. It needs the jars built by -Pfast-startup,
+ * and like RatingLoadTest it is a plain main class, since JMH runs inside one JVM.
+ * <p>
+ * Run with: ./mvnw -Pfast-startup package -DskipTests, then ./mvnw -Pbenchmark test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=com.example.explorecali.benchmark.StartupBenchmark
+ */
+public final class StartupBenchmark {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target").toAbsolutePath();
+    private static final Path CDS = TARGET.resolve("cds");
+
+    private enum Mode {
+        JAR("the repackaged jar", TARGET),
+        EXTRACTED("the jar extracted for CDS", CDS),
+        AOT("extracted, with AOT initialization", CDS, "-Dspring.aot.enabled=true"),
+        AOT_CDS("extracted, with AOT initialization and the CDS archive", CDS, "-Dspring.aot.enabled=true",
+                "-XX:SharedArchiveFile=" + CDS.resolve("application.jsa"));
+
+        private final String description;
+        private final Path directory;
+        private final List<String> jvmOptions;
+
+        Mode(String description, Path directory, String... jvmOptions) {
+            this.description = description;
+            this.directory = directory;
+            this.jvmOptions = List.of(jvmOptions);
+        }
+    }
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        List<String> results = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            Path jar = findJar(mode.directory);
+            if (jar == null || mode == Mode.AOT_CDS && !Files.exists(CDS.resolve("application.jsa"))) {
+                System.out.println("Skipping " + mode + ": build with -Pfast-startup first");
+                continue;
+            }
+            long[][] samples = new long[3][runs];
+            for (int run = 0; run < runs; run++) {
+                long[] sample = measure(mode, jar);
+                for (int i = 0; i < sample.length; i++) {
+                    samples[i][run] = sample[i];
+                }
+                System.out.printf("%s run %d: ready %d ms, first rating %d ms, first api-docs %d ms%n",
+                        mode, run + 1, sample[0], sample[1], sample[2]);
+            }
+            results.add(String.format("%-8s %9d %15d %17d  %s", mode, median(samples[0]), median(samples[1]),
+                    median(samples[2]), mode.description));
+        }
+        System.out.printf("%n%-8s %9s %15s %17s%n", "mode", "ready ms", "first rating ms", "first api-docs ms");
+        results.forEach(System.out::println);
+    }
+
+    /**
+     * @return the milliseconds to readiness, to the first ratings response and to the first OpenAPI response
+     */
+    private static long[] measure(Mode mode, Path jar) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(mode.jvmOptions);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port, "--logging.file.name="));
+        String baseUrl = "http://localhost:" + port;
+        HttpClient http = HttpClient.newHttpClient();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(TARGET.toFile(), "startup-" + mode.name().toLowerCase() + ".log"))
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (status(http, baseUrl + "/actuator/health/readiness") != 200) {
+                if (!process.isAlive() || System.nanoTime() > deadline) {
+                    throw new IllegalStateException(mode + " did not become ready, see target/startup-"
+                            + mode.name().toLowerCase() + ".log");
+                }
+                Thread.sleep(10);
+            }
+            long ready = System.nanoTime();
+            status(http, baseUrl + "/tours/1/ratings");
+            long rating = System.nanoTime();
+            status(http, baseUrl + "/v3/api-docs");
+            long docs = System.nanoTime();
+            return new long[]{(ready - start) / 1_000_000, (rating - ready) / 1_000_000, (docs - rating) / 1_000_000};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int status(HttpClient http, String url) throws InterruptedException {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static Path findJar(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
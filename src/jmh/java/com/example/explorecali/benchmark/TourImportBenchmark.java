@@ -0,0 +1,92 @@
+package com.example.explorecali.benchmark;
+
+import com.example.explorecali.repository.TourRepository;
+import com.example.explorecali.service.TourImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON tour import, over a catalog generated by repeating ExploreCalifornia.json with
+ * distinct titles. importAll starts from an empty tour table, importUnchanged re-imports
+ * a catalog that is already stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TourImportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int tours;
+
+    private ConfigurableApplicationContext context;
+    private TourImportService importService;
+    private TourRepository tourRepository;
+    private Path catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("tour-import");
+        importService = context.getBean(TourImportService.class);
+        tourRepository = context.getBean(TourRepository.class);
+        catalog = generateCatalog(tours);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(catalog);
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmptyTourTable {
+        @Setup(Level.Invocation)
+        public void setUp(TourImportBenchmark benchmark) {
+            benchmark.tourRepository.deleteAllInBatch();
+        }
+    }
+
+    @Benchmark
+    public TourImportService.ImportResult importAll(EmptyTourTable empty) throws IOException {
+        return importService.importTours(catalog.toString());
+    }
+
+    @State(Scope.Benchmark)
+    public static class Imported {
+        @Setup(Level.Trial)
+        public void setUp(TourImportBenchmark benchmark) throws IOException {
+            benchmark.tourRepository.deleteAllInBatch();
+            benchmark.importService.importTours(benchmark.catalog.toString());
+        }
+    }
+
+    @Benchmark
+    public TourImportService.ImportResult importUnchanged(Imported imported) throws IOException {
+        return importService.importTours(catalog.toString());
+    }
+
+    private static Path generateCatalog(int tours) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode sample = (ArrayNode) mapper.readTree(new File("ExploreCalifornia.json"));
+        ArrayNode catalog = mapper.createArrayNode();
+        for (int i = 0; i < tours; i++) {
+            ObjectNode tour = sample.get(i % sample.size()).deepCopy();
+            tour.put("title", tour.get("title").asText() + " #" + i);
+            catalog.add(tour);
+        }
+        Path file = Files.createTempFile("tours", ".json");
+        mapper.writeValue(file.toFile(), catalog);
+        return file;
+    }
+}
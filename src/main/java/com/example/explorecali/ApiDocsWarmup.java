@@ -0,0 +1,44 @@
+package com.example.explorecali;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * springdoc builds the OpenAPI document on the first request for it, which takes over a
+ * second. This asks for the document once the application is ready, before the readiness
+ * state turns to accepting traffic, so an instance behind a load balancer gets no requests
+ * until the document is built and no client waits for it.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "explorecali.startup.api-docs-warmup", matchIfMissing = true)
+public class ApiDocsWarmup {
+    private String apiDocsPath;
+
+    public ApiDocsWarmup(@Value("${springdoc.api-docs.path:/v3/api-docs}") String apiDocsPath) {
+        this.apiDocsPath = apiDocsPath;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            RestClient.create().get()
+                    .uri("http://localhost:" + context.getWebServer().getPort() + apiDocsPath)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.info("Built the OpenAPI document in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not build the OpenAPI document ahead of the first request", e);
+        }
+    }
+}
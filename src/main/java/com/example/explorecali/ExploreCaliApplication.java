@@ -1,11 +1,12 @@
 package com.example.explorecali;
 
-import com.example.explorecali.model.Difficulty;
-import com.example.explorecali.model.Region;
+import com.example.explorecali.service.TourImportService;
+import com.example.explorecali.service.TourLeaderboard;
 import com.example.explorecali.service.TourPackageService;
 import com.example.explorecali.service.TourService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import org.apache.commons.lang3.StringUtils;
@@ -13,13 +14,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.List;
 
 @SpringBootApplication
+@EnableCaching
 public class ExploreCaliApplication implements CommandLineRunner {
 
     public static void main(String[] args) {
@@ -36,18 +37,43 @@ public class ExploreCaliApplication implements CommandLineRunner {
                         .version("3.0.0"));
     }
 
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
     @Autowired
     private TourPackageService tourPackageService;
 
     @Autowired
     private TourService tourService;
 
+    @Autowired
+    private TourImportService tourImportService;
+
+    @Autowired
+    private TourLeaderboard tourLeaderboard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public void run(String... args) throws Exception {
-        createTourAllPackages();
+        startupPhase("packages").record(this::createTourAllPackages);
         System.out.println("Persisted Packages = " + tourPackageService.total());
-        createToursFromFile(TOUR_IMPORT_FILE);
+        startupPhase("tour-import").recordCallable(() -> {
+            createToursFromFile(TOUR_IMPORT_FILE);
+            return null;
+        });
         System.out.println("Persisted Tours = " + tourService.total());
+        startupPhase("leaderboard").record(tourLeaderboard::rebuild);
+    }
+
+    private Timer startupPhase(String phase) {
+        return Timer.builder("explorecali.startup")
+                .description("Time spent in each startup phase")
+                .tag("phase", phase)
+                .register(meterRegistry);
     }
 
     private void createTourAllPackages() {
@@ -63,29 +89,7 @@ public class ExploreCaliApplication implements CommandLineRunner {
     }
 
     private void createToursFromFile(String fileToImport) throws IOException {
-        TourFromFile.read(fileToImport).forEach(t ->
-                tourService.createTour(
-                        t.packageName(),
-                        t.title(),
-                        t.description(),
-                        t.blurb(),
-                        t.price(),
-                        t.length(),
-                        t.bullets(),
-                        t.keywords(),
-                        Difficulty.valueOf(t.difficulty()),
-                        Region.findByLabel(t.region())
-                )
-        );
-    }
-
-    record TourFromFile(String packageName, String title, String description,
-                        String blurb, Integer price, String length, String bullets,
-                        String keywords, String difficulty, String region) {
-        static List<TourFromFile> read(String fileToImport) throws IOException {
-            return new ObjectMapper().readValue(new File(fileToImport),
-                    new TypeReference<List<TourFromFile>>() {});
-        }
+        tourImportService.importTours(fileToImport);
     }
 
 }
@@ -0,0 +1,74 @@
+package com.example.explorecali;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder of the log file, used from logback-spring.xml. Writes structured JSON in the given
+ * format when there is one, and plain text with the given pattern when the format is missing
+ * or blank, so logging still starts wherever logging.structured.format.file is not set.
+ */
+public class FileLogEncoder extends EncoderBase<ILoggingEvent> {
+    private String format;
+    private String pattern;
+    private Charset charset = StandardCharsets.UTF_8;
+    private Encoder<ILoggingEvent> delegate;
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    public void start() {
+        if (StringUtils.hasText(format)) {
+            StructuredLogEncoder structured = new StructuredLogEncoder();
+            structured.setFormat(format);
+            structured.setCharset(charset);
+            delegate = structured;
+        } else {
+            PatternLayoutEncoder plain = new PatternLayoutEncoder();
+            plain.setPattern(pattern);
+            plain.setCharset(charset);
+            delegate = plain;
+        }
+        delegate.setContext(getContext());
+        delegate.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        delegate.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return delegate.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return delegate.encode(event);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return delegate.footerBytes();
+    }
+}
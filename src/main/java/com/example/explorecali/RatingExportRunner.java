@@ -0,0 +1,52 @@
+package com.example.explorecali;
+
+import com.example.explorecali.service.RatingExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports every rating to a file and shuts the application down, for scheduled exports run as
+ * {@code java -jar explorecali.jar --explorecali.export.path=ratings.csv.gz}. The format is
+ * explorecali.export.format (CSV or BINARY), and a path ending in .gz is gzipped. It runs once
+ * the application is ready, after the startup data has been loaded.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty("explorecali.export.path")
+public class RatingExportRunner {
+    private RatingExportService ratingExportService;
+    private ApplicationContext context;
+    private Path path;
+    private RatingExportService.Format format;
+
+    public RatingExportRunner(RatingExportService ratingExportService, ApplicationContext context,
+                              @Value("${explorecali.export.path}") Path path,
+                              @Value("${explorecali.export.format:CSV}") RatingExportService.Format format) {
+        this.ratingExportService = ratingExportService;
+        this.context = context;
+        this.path = path;
+        this.format = format;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void export() throws IOException {
+        boolean gzip = path.getFileName().toString().endsWith(".gz");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long rows = ratingExportService.export(format, gzip, channel);
+            log.info("Wrote {} ratings to {}", rows, path);
+        }
+        SpringApplication.exit(context, () -> 0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.explorecali.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts admission control in front of the rating endpoints, unless explorecali.admission.enabled is false.
+ */
+@Configuration
+@ConditionalOnProperty(value = "explorecali.admission.enabled", matchIfMissing = true)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+    private AdmissionControlInterceptor admissionControlInterceptor;
+
+    public AdmissionControlConfig(AdmissionControlInterceptor admissionControlInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/tours/*/ratings", "/tours/*/ratings/**", "/tours/averages", "/tours/top-rated",
+                        "/customers/*/ratings", "/ratings/export");
+    }
+}
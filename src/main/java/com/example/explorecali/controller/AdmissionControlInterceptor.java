@@ -0,0 +1,182 @@
+package com.example.explorecali.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sheds load before it reaches the services. Writes from each client draw from a token bucket,
+ * and reads and writes each have their own limit on requests in flight, so a write burst is
+ * rejected with 429 instead of queueing for database connections ahead of the reads. Nothing
+ * ever waits here: a request either gets a permit straight away or is rejected.
+ * Clients are told apart by their authenticated principal, or else by the address of the peer
+ * connection. Only a peer listed in explorecali.admission.trusted-proxies can speak for the
+ * client: through the X-Client-Id header, or else the forwarded client address. Anyone else
+ * sending the header or X-Forwarded-For is still keyed on their own address, so they can't
+ * get a fresh burst by changing them.
+ */
+@Component
+@Slf4j
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final String PERMIT = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final Semaphore reads;
+    private final Semaphore writes;
+    private final double writesPerSecond;
+    private final double writeBurst;
+    private final Cache<String, TokenBucket> buckets;
+    private final Set<String> trustedProxies;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${explorecali.admission.reads.max-concurrent:64}") int maxReads,
+                                       @Value("${explorecali.admission.writes.max-concurrent:6}") int maxWrites,
+                                       @Value("${explorecali.admission.writes.per-client-rate:20}") double writesPerSecond,
+                                       @Value("${explorecali.admission.writes.per-client-burst:40}") double writeBurst,
+                                       @Value("${explorecali.admission.max-clients:100000}") long maxClients,
+                                       @Value("${explorecali.admission.trusted-proxies:}") Set<String> trustedProxies) {
+        this.meterRegistry = meterRegistry;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.reads = new Semaphore(maxReads);
+        this.writes = new Semaphore(maxWrites);
+        this.writesPerSecond = writesPerSecond;
+        this.writeBurst = writeBurst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        inFlight("read", reads, maxReads);
+        inFlight("write", writes, maxWrites);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT) != null) {
+            // the async dispatch of a streamed response, which already holds its permit
+            return true;
+        }
+        boolean write = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+        String requestClass = write ? "write" : "read";
+        if (write) {
+            long waitNanos = buckets.get(clientId(request), id -> new TokenBucket(writeBurst)).tryConsume(
+                    writesPerSecond, writeBurst);
+            if (waitNanos > 0) {
+                throw reject(requestClass, "rate", "Write rate limit exceeded for this client",
+                        TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+            }
+        }
+        Semaphore permits = write ? writes : reads;
+        if (!permits.tryAcquire()) {
+            throw reject(requestClass, "concurrency", "Too many concurrent " + requestClass + " requests", 1);
+        }
+        request.setAttribute(PERMIT, permits);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Semaphore permits = (Semaphore) request.getAttribute(PERMIT);
+        if (permits != null) {
+            request.removeAttribute(PERMIT);
+            permits.release();
+        }
+    }
+
+    private AdmissionRejectedException reject(String requestClass, String reason, String message,
+                                              long retryAfterSeconds) {
+        Counter.builder("explorecali.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("class", requestClass)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Rejected {} request: {}", requestClass, message);
+        return new AdmissionRejectedException(message, retryAfterSeconds);
+    }
+
+    private void inFlight(String requestClass, Semaphore permits, int max) {
+        Gauge.builder("explorecali.admission.in.flight", permits, p -> max - p.availablePermits())
+                .description("Requests holding an admission permit")
+                .tag("class", requestClass)
+                .register(meterRegistry);
+    }
+
+    private String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String peer = peerAddress(request);
+        if (!trustedProxies.contains(peer)) {
+            return peer;
+        }
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? request.getRemoteAddr() : clientId;
+    }
+
+    /**
+     * The address of the connection itself. With forwarded headers handled by the framework, the
+     * request seen here is a wrapper whose remote address comes from X-Forwarded-For.
+     */
+    private static String peerAddress(HttpServletRequest request) {
+        ServletRequest peer = request;
+        while (peer instanceof ServletRequestWrapper wrapper) {
+            peer = wrapper.getRequest();
+        }
+        return peer.getRemoteAddr();
+    }
+
+    /**
+     * Tokens refill continuously at the client rate, up to the burst size.
+     */
+    static class TokenBucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        TokenBucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        /**
+         * Take a token if one is available.
+         *
+         * @return 0 if a token was taken, otherwise nanoseconds until the next one
+         */
+        long tryConsume(double perSecond, double burst) {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                tokens = Math.min(burst, tokens + (now - refilledAt) * perSecond / 1e9);
+                refilledAt = now;
+                if (tokens >= 1) {
+                    tokens--;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - tokens) * 1e9 / perSecond);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
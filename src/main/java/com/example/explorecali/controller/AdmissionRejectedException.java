@@ -0,0 +1,19 @@
+package com.example.explorecali.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A request shed by admission control, with a hint of when to retry.
+ */
+public class AdmissionRejectedException extends RejectedExecutionException {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
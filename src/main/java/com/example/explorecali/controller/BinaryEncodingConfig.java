@@ -0,0 +1,102 @@
+package com.example.explorecali.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.RepositoryRestHandlerMapping;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Serves CBOR or Smile instead of JSON to clients that ask for them in the Accept header, from
+ * the controllers and from the Spring Data REST resources. Each binary mapper is a copy of the
+ * JSON mapper it stands in for, so the fields and links are the same in every encoding.
+ */
+@Configuration
+public class BinaryEncodingConfig implements RepositoryRestConfigurer {
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory()));
+    }
+
+    /**
+     * Spring Data REST maps its repository resources for the JSON media types only, so widen
+     * each of those mappings to CBOR and Smile once they are registered. JSON stays first, for
+     * clients that accept anything.
+     */
+    @Bean
+    public SmartInitializingSingleton binaryRepositoryResources(
+            @Qualifier("restHandlerMapping") Iterable<HandlerMapping> restHandlerMapping) {
+        return () -> {
+            for (HandlerMapping handlerMapping : restHandlerMapping) {
+                if (handlerMapping instanceof RepositoryRestHandlerMapping repositoryMapping) {
+                    Map.copyOf(repositoryMapping.getHandlerMethods()).forEach((info, handlerMethod) -> {
+                        Set<MediaType> produces = info.getProducesCondition().getProducibleMediaTypes();
+                        if (produces.contains(MediaTypes.HAL_JSON)) {
+                            Stream<String> binary = Stream.of(MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE);
+                            repositoryMapping.unregisterMapping(info);
+                            repositoryMapping.registerMapping(info.mutate().produces(
+                                    Stream.concat(produces.stream().map(MediaType::toString), binary)
+                                            .toArray(String[]::new)).build(),
+                                    handlerMethod.getBean(), handlerMethod.getMethod());
+                        }
+                    });
+                }
+            }
+        };
+    }
+
+    /**
+     * Answer deletes with 204 No Content whatever the Accept header. Rendering the removed entity
+     * would need its lazy long text, which can no longer be loaded once it is deleted.
+     */
+    @Override
+    public void configureRepositoryRestConfiguration(RepositoryRestConfiguration config, CorsRegistry cors) {
+        config.setReturnBodyOnDelete(false);
+    }
+
+    /**
+     * Add CBOR and Smile renderings of the repository resources, using copies of the HAL mapper.
+     */
+    @Override
+    public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+        ObjectMapper halObjectMapper = messageConverters.stream()
+                .filter(TypeConstrainedMappingJackson2HttpMessageConverter.class::isInstance)
+                .map(TypeConstrainedMappingJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON))
+                .map(AbstractJackson2HttpMessageConverter::getObjectMapper)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No HAL message converter to copy"));
+        messageConverters.add(new TypeConstrainedMappingJackson2HttpMessageConverter(RepresentationModel.class,
+                List.of(MediaType.APPLICATION_CBOR), halObjectMapper.copyWith(new CBORFactory())));
+        messageConverters.add(new TypeConstrainedMappingJackson2HttpMessageConverter(RepresentationModel.class,
+                List.of(APPLICATION_SMILE), halObjectMapper.copyWith(new SmileFactory())));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.dto.CustomerRatingDto;
+import com.example.explorecali.dto.KeysetPage;
+import com.example.explorecali.service.TourRatingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Slf4j
+@Tag(name = "Customer Ratings", description = "The ratings of a customer API")
+@RequestMapping(path = "/customers/{customerId}/ratings")
+public class CustomerRatingController {
+    private TourRatingService tourRatingService;
+
+    public CustomerRatingController(TourRatingService tourRatingService) {
+        this.tourRatingService = tourRatingService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get a page of the Tour Ratings of a customer")
+    public KeysetPage<CustomerRatingDto> getCustomerRatings(@PathVariable(value = "customerId") int customerId,
+                                                            @RequestParam(value = "after", required = false) String after,
+                                                            @RequestParam(value = "size", defaultValue = "100")
+                                                            @Min(1) @Max(1000) int size) {
+        log.info("GET /customers/{}/ratings after {}", customerId, after);
+        return tourRatingService.lookupCustomerRatings(customerId, after, size);
+    }
+}
@@ -2,7 +2,9 @@ package com.example.explorecali.controller;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +14,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 @Slf4j
@@ -40,6 +43,26 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return  createResponseEntity(pd, null, HttpStatus.BAD_REQUEST, request);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public final ResponseEntity<Object> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, WebRequest request) {
+        logException(ex);
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The request conflicts with existing data, such as a customer rating a tour twice");
+        return createResponseEntity(pd, null, HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public final ResponseEntity<Object> handleRejectedExecutionException(
+            RejectedExecutionException ex, WebRequest request) {
+        log.warn("Rejected request: {}", ex.getMessage());
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        HttpHeaders headers = new HttpHeaders();
+        long retryAfter = ex instanceof AdmissionRejectedException rejected ? rejected.getRetryAfterSeconds() : 1;
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return createResponseEntity(pd, headers, HttpStatus.TOO_MANY_REQUESTS, request);
+    }
+
     @ExceptionHandler(Exception.class)
     public final ResponseEntity<Object> handleNoSuchElementException(Exception ex, WebRequest request) {
         logException(ex);
@@ -0,0 +1,45 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.service.RatingExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+
+@RestController
+@Slf4j
+@Tag(name = "Rating Export", description = "Bulk export of all tour ratings API")
+@RequestMapping(path = "/ratings/export")
+public class RatingExportController {
+    private RatingExportService ratingExportService;
+
+    public RatingExportController(RatingExportService ratingExportService) {
+        this.ratingExportService = ratingExportService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Download every tour rating as CSV or in the binary columnar format")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "CSV") RatingExportService.Format format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        log.info("GET /ratings/export?format={}&gzip={}", format, gzip);
+        String fileName = "ratings" + (format == RatingExportService.Format.CSV ? ".csv" : ".bin") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == RatingExportService.Format.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.APPLICATION_OCTET_STREAM;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(out -> ratingExportService.export(format, gzip, Channels.newChannel(out)));
+    }
+}
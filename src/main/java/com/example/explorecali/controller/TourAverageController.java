@@ -0,0 +1,36 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.dto.TourAverageDto;
+import com.example.explorecali.service.TourRatingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Slf4j
+@Tag(name = "Tour Averages", description = "Average scores of many tours API")
+@RequestMapping(path = "/tours/averages")
+public class TourAverageController {
+    private TourRatingService tourRatingService;
+
+    public TourAverageController(TourRatingService tourRatingService) {
+        this.tourRatingService = tourRatingService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the average score, rating count and histogram of several Tours",
+            description = "Unknown tour ids are reported in their entry instead of failing the request")
+    public List<TourAverageDto> getAverages(@RequestParam(value = "tourIds") @NotEmpty @Size(max = 500)
+                                            List<Integer> tourIds) {
+        log.info("GET /tours/averages for {} tours", tourIds.size());
+        return tourRatingService.getAverages(tourIds);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.dto.TopRatedTourDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.service.TourLeaderboard;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Slf4j
+@Tag(name = "Tour Leaderboard", description = "Best rated tours API")
+@RequestMapping(path = "/tours/top-rated")
+public class TourLeaderboardController {
+    private TourLeaderboard tourLeaderboard;
+
+    public TourLeaderboardController(TourLeaderboard tourLeaderboard) {
+        this.tourLeaderboard = tourLeaderboard;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get the best rated tours")
+    public List<TopRatedTourDto> getTopRated(@RequestParam(value = "limit", defaultValue = "10") @Min(1) @Max(100) int limit,
+                                             @RequestParam(value = "minRatings", defaultValue = "1") @Min(1) long minRatings,
+                                             @RequestParam(value = "region", required = false) Region region,
+                                             @RequestParam(value = "difficulty", required = false) Difficulty difficulty) {
+        log.info("GET /tours/top-rated?limit={}", limit);
+        return tourLeaderboard.top(limit, minRatings, region, difficulty);
+    }
+}
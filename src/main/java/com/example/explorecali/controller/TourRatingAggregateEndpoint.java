@@ -0,0 +1,34 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.service.TourRatingAggregateService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to check the per tour rating totals for drift (GET) and
+ * to rebuild them from the tour_rating table (POST).
+ */
+@Component
+@Endpoint(id = "ratingaggregates")
+public class TourRatingAggregateEndpoint {
+    private TourRatingAggregateService aggregateService;
+
+    public TourRatingAggregateEndpoint(TourRatingAggregateService aggregateService) {
+        this.aggregateService = aggregateService;
+    }
+
+    @ReadOperation
+    public List<TourRatingAggregateService.Drift> verify() {
+        return aggregateService.verify();
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        return Map.of("rebuilt", aggregateService.rebuild());
+    }
+}
@@ -1,15 +1,34 @@
 package com.example.explorecali.controller;
 
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.KeysetPage;
 import com.example.explorecali.dto.RatingDto;
 import com.example.explorecali.model.TourRating;
+import com.example.explorecali.service.RatingIngestionQueue;
 import com.example.explorecali.service.TourRatingService;
+import com.example.explorecali.service.TourRatingVersions;
+import com.example.explorecali.service.TourSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,34 +39,96 @@ import java.util.Optional;
 @RequestMapping(path = "/tours/{tourId}/ratings")
 public class TourRatingController {
     private TourRatingService tourRatingService;
+    private RatingIngestionQueue ratingIngestionQueue;
+    private TourRatingVersions tourRatingVersions;
+    private TourSearchIndex tourSearchIndex;
+    private ObjectMapper objectMapper;
+    private ObjectWriter ratingWriter;
 
-    public TourRatingController(TourRatingService tourRatingService) {
+    public TourRatingController(TourRatingService tourRatingService, RatingIngestionQueue ratingIngestionQueue,
+                                TourRatingVersions tourRatingVersions, TourSearchIndex tourSearchIndex,
+                                ObjectMapper objectMapper) {
         this.tourRatingService = tourRatingService;
+        this.ratingIngestionQueue = ratingIngestionQueue;
+        this.tourRatingVersions = tourRatingVersions;
+        this.tourSearchIndex = tourSearchIndex;
+        this.objectMapper = objectMapper;
+        this.ratingWriter = objectMapper.writerFor(RatingDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Create a Tour Rating")
-    public RatingDto createTourRating(@PathVariable(value = "tourId") int tourId,
-                                      @RequestBody @Valid RatingDto ratingDto) {
-        log.info("POST /tours/{}/ratings ", tourId);
+    @Operation(summary = "Create a Tour Rating",
+            description = "Responds 202 Accepted instead of 201 Created when ratings are ingested asynchronously")
+    public ResponseEntity<RatingDto> createTourRating(@PathVariable(value = "tourId") int tourId,
+                                                      @RequestBody @Valid RatingDto ratingDto) {
+        log.atInfo().addKeyValue("tourId", tourId).log("POST /tours/{tourId}/ratings");
+        if (ratingIngestionQueue.isEnabled()) {
+            tourRatingService.verifyTourExists(tourId);
+            ratingIngestionQueue.submit(tourId, ratingDto);
+            return ResponseEntity.accepted().body(ratingDto);
+        }
         TourRating rating = tourRatingService.createNew(tourId, ratingDto.getCustomerId(),
                 ratingDto.getScore(), ratingDto.getComment());
-        return new RatingDto(rating);
+        return ResponseEntity.status(HttpStatus.CREATED).body(rating.toDto());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryEncodingConfig.APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get all Tour Ratings for a Tour",
+            description = "JSON, CBOR or Smile, as the Accept header asks. "
+                    + "Responds 304 Not Modified when If-None-Match holds the current ETag")
+    public List<RatingDto> getAllRatingsForTour(@PathVariable(value = "tourId") int tourId, WebRequest request,
+                                                HttpServletResponse response) {
+        log.atInfo().addKeyValue("tourId", tourId).log("GET /tours/{tourId}/ratings");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // a tour that doesn't exist gets a 404 without a tag, never a 304
+        verifyTourKnown(tourId);
+        if (request.checkNotModified(tourRatingVersions.etag(tourId, "ratings"))) {
+            return null;
+        }
+        return tourRatingService.lookupRatings(tourId);
     }
 
-    @GetMapping
-    @Operation(summary = "Get all Tour Ratings for a Tour")
-    public List<RatingDto> getAllRatingsForTour(@PathVariable(value = "tourId") int tourId) {
-        log.info("GET /tours/{}/ratings", tourId);
-        List<TourRating> tourRatings = tourRatingService.lookupRatings(tourId);
-        return tourRatings.stream().map(RatingDto::new).toList();
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all Tour Ratings for a Tour as newline delimited JSON")
+    public StreamingResponseBody streamAllRatingsForTour(@PathVariable(value = "tourId") int tourId) {
+        log.atInfo().addKeyValue("tourId", tourId).log("GET /tours/{tourId}/ratings as ndjson");
+        tourRatingService.verifyTourExists(tourId);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                tourRatingService.streamRatings(tourId, rating -> {
+                    try {
+                        ratingWriter.writeValue(generator, rating);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of Tour Ratings for a Tour")
+    public KeysetPage<RatingDto> getRatingsPage(@PathVariable(value = "tourId") int tourId,
+                                                @RequestParam(value = "after", required = false) String after,
+                                                @RequestParam(value = "size", defaultValue = "100")
+                                                @Min(1) @Max(1000) int size) {
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("after", after).log("GET /tours/{tourId}/ratings/page");
+        return tourRatingService.lookupRatings(tourId, after, size);
     }
 
     @GetMapping("/average")
-    @Operation(summary = "Get the average score for a Tour")
-    public Map<String, Double> getAverage(@PathVariable(value = "tourId") int tourId) {
-        log.info("GET /tours/{}/ratings/average", tourId);
+    @Operation(summary = "Get the average score for a Tour",
+            description = "Responds 304 Not Modified when If-None-Match holds the current ETag")
+    public Map<String, Double> getAverage(@PathVariable(value = "tourId") int tourId, WebRequest request) {
+        log.atInfo().addKeyValue("tourId", tourId).log("GET /tours/{tourId}/ratings/average");
+        verifyTourKnown(tourId);
+        if (request.checkNotModified(tourRatingVersions.etag(tourId, "average"))) {
+            return null;
+        }
         return Map.of("average", tourRatingService.getAverageScore(tourId));
     }
 
@@ -55,36 +136,51 @@ public class TourRatingController {
     @PutMapping
     @Operation(summary = "Update a Tour Rating")
     public RatingDto updateWithPut(@PathVariable(value = "tourId") int tourId, @RequestBody @Valid RatingDto ratingDto) {
-        log.info("PUT /tours/{}/ratings", tourId);
-        return new RatingDto(tourRatingService.update(tourId, ratingDto.getCustomerId(),
-                ratingDto.getScore(), ratingDto.getComment()));
+        log.atInfo().addKeyValue("tourId", tourId).log("PUT /tours/{tourId}/ratings");
+        return tourRatingService.update(tourId, ratingDto.getCustomerId(),
+                ratingDto.getScore(), ratingDto.getComment()).toDto();
     }
 
     @Operation(summary = "Update a Tour Rating")
     @PatchMapping
     public RatingDto updateWithPatch(@PathVariable(value = "tourId") int tourId,
                                      @RequestBody @Valid RatingDto ratingDto) {
-        log.info("PATCH /tours/{}/ratings", tourId);
-        return new RatingDto(tourRatingService.updateSome(tourId,
+        log.atInfo().addKeyValue("tourId", tourId).log("PATCH /tours/{tourId}/ratings");
+        return tourRatingService.updateSome(tourId,
                 ratingDto.getCustomerId(),
                 Optional.ofNullable(ratingDto.getScore()),
-                Optional.ofNullable(ratingDto.getComment())));
+                Optional.ofNullable(ratingDto.getComment())).toDto();
     }
 
     @Operation(summary = "Delete a Tour Rating")
     @DeleteMapping("/{customerId}")
     public void delete(@PathVariable(value = "tourId") int tourId, @PathVariable(value = "customerId") int customerId) {
-        log.info("DELETE /tours/{}/ratings/{}", tourId, customerId);
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customerId", customerId)
+                .log("DELETE /tours/{tourId}/ratings/{customerId}");
         tourRatingService.delete(tourId, customerId);
     }
 
-  @Operation(summary = "Get a Tour Rating")
+    @Operation(summary = "Rate a Tour for many customers")
     @PostMapping("/batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public void createManyTourRatings(@PathVariable(value = "tourId") int tourId,
-                                      @RequestParam(value = "score") int score,
-                                      @RequestBody List<Integer> customers) {
-        log.info("POST /tours/{}/ratings/batch", tourId);
-        tourRatingService.rateMany(tourId, score, customers);
+    public BatchRatingReport createManyTourRatings(@PathVariable(value = "tourId") int tourId,
+                                                   @RequestParam(value = "score") int score,
+                                                   @RequestBody List<Integer> customers) {
+        log.atInfo().addKeyValue("tourId", tourId).log("POST /tours/{tourId}/ratings/batch");
+        return tourRatingService.rateMany(tourId, score, customers);
+    }
+
+    /**
+     * Check a tour exists before answering a conditional GET. Tours in the search index are
+     * known without a database read, so unchanged polls stay in memory. Other ids are checked
+     * in the database, and the 200 path still reads the tour's ratings from there.
+     *
+     * @param tourId the tour identifier
+     * @throws java.util.NoSuchElementException if the tour does not exist
+     */
+    private void verifyTourKnown(int tourId) {
+        if (tourSearchIndex.lookup(tourId).isEmpty()) {
+            tourRatingService.verifyTourExists(tourId);
+        }
     }
 }
\ No newline at end of file
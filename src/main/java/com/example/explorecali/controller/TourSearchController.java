@@ -0,0 +1,41 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.service.TourSearchIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@Slf4j
+@Tag(name = "Tour Search", description = "Keyword search over tours API")
+@RequestMapping(path = "/search/tours")
+public class TourSearchController {
+    private TourSearchIndex tourSearchIndex;
+
+    public TourSearchController(TourSearchIndex tourSearchIndex) {
+        this.tourSearchIndex = tourSearchIndex;
+    }
+
+    @GetMapping
+    @Operation(summary = "Search tours by title and keywords")
+    public List<TourSummaryDto> search(@RequestParam(value = "q", required = false) String query,
+                                       @RequestParam(value = "match", defaultValue = "ALL") TourSearchIndex.Match match,
+                                       @RequestParam(value = "difficulty", required = false) Difficulty difficulty,
+                                       @RequestParam(value = "region", required = false) Region region,
+                                       @RequestParam(value = "packageCode", required = false) String packageCode,
+                                       @RequestParam(value = "limit", defaultValue = "50") @Min(1) @Max(1000) int limit) {
+        log.info("GET /search/tours?q={}", query);
+        return tourSearchIndex.search(query, match, difficulty, region, packageCode, limit);
+    }
+}
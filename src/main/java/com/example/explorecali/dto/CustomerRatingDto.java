@@ -0,0 +1,16 @@
+package com.example.explorecali.dto;
+
+import com.example.explorecali.model.Region;
+
+/**
+ * A rating in a customer's history, with just enough of the tour to list it.
+ *
+ * @param tour    the rated tour
+ * @param score   score
+ * @param comment comment
+ */
+public record CustomerRatingDto(TourRef tour, Integer score, String comment) {
+
+    public record TourRef(Integer id, String title, Region region) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.explorecali.dto;
+
+import jakarta.validation.ConstraintViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ *
+ * @param content the rows of this page
+ * @param next    continuation token to pass back for the following page, null on the last page
+ */
+public record KeysetPage<T>(List<T> content, String next) {
+
+    /**
+     * Encode the key of the last row of a page as an opaque continuation token.
+     *
+     * @param lastId the id of the last row returned
+     * @return the continuation token
+     */
+    public static String encode(Integer lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a continuation token back into the key to continue after.
+     *
+     * @param token the continuation token, may be null for the first page
+     * @return the id to continue after, 0 for the first page
+     * @throws ConstraintViolationException if the token is malformed
+     */
+    public static int decode(String token) throws ConstraintViolationException {
+        if (token == null || token.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ConstraintViolationException("Invalid continuation token " + token, null);
+        }
+    }
+}
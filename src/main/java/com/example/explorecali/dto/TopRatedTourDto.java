@@ -0,0 +1,11 @@
+package com.example.explorecali.dto;
+
+/**
+ * A tour in the best rated listing.
+ *
+ * @param tour    the tour
+ * @param average its average score
+ * @param ratings its number of ratings
+ */
+public record TopRatedTourDto(TourSummaryDto tour, double average, long ratings) {
+}
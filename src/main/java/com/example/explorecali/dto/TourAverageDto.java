@@ -0,0 +1,20 @@
+package com.example.explorecali.dto;
+
+import java.util.Map;
+
+/**
+ * Rating totals of one tour in a bulk average lookup.
+ *
+ * @param tourId    tour identifier
+ * @param status    whether the tour exists and has ratings
+ * @param average   average score, null unless the tour has ratings
+ * @param ratings   number of ratings
+ * @param histogram number of ratings per score
+ */
+public record TourAverageDto(Integer tourId, Status status, Double average, long ratings,
+                             Map<Integer, Long> histogram) {
+
+    public enum Status {
+        RATED, NOT_RATED, UNKNOWN_TOUR
+    }
+}
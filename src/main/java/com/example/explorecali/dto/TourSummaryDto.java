@@ -0,0 +1,19 @@
+package com.example.explorecali.dto;
+
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+
+/**
+ * The short form of a tour used in listings, without the long description, blurb and bullets.
+ *
+ * @param id          tour identifier
+ * @param title       title
+ * @param price       price
+ * @param duration    duration
+ * @param difficulty  difficulty
+ * @param region      region
+ * @param packageCode code of the tour package
+ */
+public record TourSummaryDto(Integer id, String title, Integer price, String duration,
+                             Difficulty difficulty, Region region, String packageCode) {
+}
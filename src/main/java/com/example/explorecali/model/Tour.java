@@ -1,21 +1,30 @@
 package com.example.explorecali.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
-import java.util.Objects;
-
+/**
+ * A tour in the catalog. The description, blurb and bullets are the bulk of each row, so they
+ * load lazily, together, the first time one of them is read; listings never touch them.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_tour_difficulty", columnList = "difficulty"),
+        @Index(name = "idx_tour_tour_package_code", columnList = "tour_package_code")})
 public class Tour {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tour_seq")
+    @SequenceGenerator(name = "tour_seq", sequenceName = "tour_seq", allocationSize = 50)
     private Integer id;
 
     @Column
     private String title;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String description;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String blurb;
 
@@ -25,6 +34,7 @@ public class Tour {
     @Column
     private String duration;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 2000)
     private String bullets;
 
@@ -43,6 +53,13 @@ public class Tour {
     @Column
     private Region region;
 
+    /**
+     * Hash of the imported details, internal to the import and never rendered.
+     */
+    @JsonIgnore
+    @Column(length = 64)
+    private String fingerprint;
+
     public Tour(String title, String description, String blurb, Integer price, String duration, String bullets,
                 String keywords, TourPackage tourPackage, Difficulty difficulty, Region region) {
         this.title = title;
@@ -104,43 +121,59 @@ public class Tour {
         return region;
     }
 
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Copy everything but the identifier from another tour.
+     *
+     * @param source the tour holding the new details
+     */
+    public void copyDetails(Tour source) {
+        this.title = source.title;
+        this.description = source.description;
+        this.blurb = source.blurb;
+        this.price = source.price;
+        this.duration = source.duration;
+        this.bullets = source.bullets;
+        this.keywords = source.keywords;
+        this.tourPackage = source.tourPackage;
+        this.difficulty = source.difficulty;
+        this.region = source.region;
+        this.fingerprint = source.fingerprint;
+    }
+
     @Override
     public String toString() {
         return "Tour{" +
                 "id=" + id +
                 ", title='" + title + '\'' +
-                ", description='" + description + '\'' +
-                ", blurb='" + blurb + '\'' +
                 ", price=" + price +
                 ", duration='" + duration + '\'' +
-                ", bullets='" + bullets + '\'' +
                 ", keywords='" + keywords + '\'' +
-                ", tourPackage=" + tourPackage +
                 ", difficulty=" + difficulty +
                 ", region=" + region +
                 '}';
     }
 
+    /**
+     * Tours are equal when they have the same identifier, so a tour keeps its hash once saved
+     * and comparing two tours never loads their long text or their package.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Tour tour = (Tour) o;
-        return Objects.equals(id, tour.id) &&
-                Objects.equals(title, tour.title) &&
-                Objects.equals(description, tour.description) &&
-                Objects.equals(blurb, tour.blurb) &&
-                Objects.equals(price, tour.price) &&
-                Objects.equals(duration, tour.duration) &&
-                Objects.equals(bullets, tour.bullets) &&
-                Objects.equals(keywords, tour.keywords) &&
-                Objects.equals(tourPackage, tour.tourPackage) &&
-                difficulty == tour.difficulty &&
-                region == tour.region;
+        if (!(o instanceof Tour tour)) return false;
+        return id != null && id.equals(tour.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, description, blurb, price, duration, bullets, keywords, tourPackage, difficulty, region);
+        return Tour.class.hashCode();
     }
 }
@@ -1,18 +1,27 @@
 package com.example.explorecali.model;
 
+import com.example.explorecali.dto.RatingDto;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
 
 @Entity
-@Table(name = "tour_rating")
+@Table(name = "tour_rating",
+        indexes = {
+                @Index(name = "idx_tour_rating_tour_id_id", columnList = "tour_id, id"),
+                @Index(name = "idx_tour_rating_customer_id_id", columnList = "customer_id, id")},
+        uniqueConstraints = @UniqueConstraint(name = "uk_tour_rating_customer_id_tour_id",
+                columnNames = {"customer_id", "tour_id"}))
 @Data
 public class TourRating {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tour_rating_seq")
+    @SequenceGenerator(name = "tour_rating_seq", sequenceName = "tour_rating_seq", allocationSize = 50)
     private Integer id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tour_id")
+    @ToString.Exclude
     private Tour tour;
 
     @Column(name = "customer_id")
@@ -55,4 +64,10 @@ public class TourRating {
         this.score = score;
     }
 
-}
\ No newline at end of file
+    /**
+     * @return the rating as the API exchanges it
+     */
+    public RatingDto toDto() {
+        return new RatingDto(score, comment, customerId);
+    }
+}
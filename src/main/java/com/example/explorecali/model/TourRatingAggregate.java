@@ -0,0 +1,147 @@
+package com.example.explorecali.model;
+
+import jakarta.persistence.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Running totals of the ratings of a single tour, kept in step with the
+ * tour_rating table so averages can be read without scanning the ratings.
+ */
+@Entity
+@Table(name = "tour_rating_aggregate")
+public class TourRatingAggregate {
+    @Id
+    @Column(name = "tour_id")
+    private Integer tourId;
+
+    @Column(name = "rating_count", nullable = false)
+    private long count;
+
+    @Column(name = "score_sum", nullable = false)
+    private long sum;
+
+    /**
+     * Moves on with every change. Changes are made under the row lock, so a higher revision
+     * always holds later totals than a lower one.
+     */
+    @Column(name = "revision", nullable = false)
+    private long revision;
+
+    @ElementCollection
+    @CollectionTable(name = "tour_rating_histogram", joinColumns = @JoinColumn(name = "tour_id"))
+    @MapKeyColumn(name = "score")
+    @Column(name = "rating_count", nullable = false)
+    private Map<Integer, Long> histogram = new HashMap<>();
+
+    protected TourRatingAggregate() {
+    }
+
+    /**
+     * Create an empty aggregate for a tour.
+     *
+     * @param tourId the tour identifier.
+     */
+    public TourRatingAggregate(Integer tourId) {
+        this.tourId = tourId;
+    }
+
+    /**
+     * Account for ratings being added.
+     *
+     * @param score   the score of the new ratings
+     * @param ratings the number of ratings added with that score
+     */
+    public void add(int score, long ratings) {
+        count += ratings;
+        sum += score * ratings;
+        revision++;
+        histogram.merge(score, ratings, Long::sum);
+    }
+
+    /**
+     * Account for a rating being removed.
+     *
+     * @param score the score of the removed rating
+     */
+    public void remove(int score) {
+        count--;
+        sum -= score;
+        revision++;
+        histogram.computeIfPresent(score, (s, c) -> c > 1 ? c - 1 : null);
+    }
+
+    /**
+     * Account for a rating changing its score.
+     *
+     * @param oldScore the previous score
+     * @param newScore the new score
+     */
+    public void change(int oldScore, int newScore) {
+        if (oldScore != newScore) {
+            remove(oldScore);
+            add(newScore, 1);
+        }
+    }
+
+    /**
+     * Forget all ratings, ahead of recomputing the totals from scratch.
+     */
+    public void reset() {
+        count = 0;
+        sum = 0;
+        revision++;
+        histogram.clear();
+    }
+
+    public Integer getTourId() {
+        return tourId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return the average score, or null when the tour has no ratings.
+     */
+    public Double getAverage() {
+        return count == 0 ? null : (double) sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "TourRatingAggregate{" +
+                "tourId=" + tourId +
+                ", count=" + count +
+                ", sum=" + sum +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TourRatingAggregate that = (TourRatingAggregate) o;
+        return Objects.equals(tourId, that.tourId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tourId);
+    }
+}
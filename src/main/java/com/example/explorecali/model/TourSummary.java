@@ -0,0 +1,26 @@
+package com.example.explorecali.model;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.core.config.Projection;
+
+/**
+ * How tours appear in the REST listings and search results: everything but the long text,
+ * which is only rendered when a single tour is requested.
+ */
+@Projection(name = "summary", types = Tour.class)
+public interface TourSummary {
+    Integer getId();
+
+    String getTitle();
+
+    Integer getPrice();
+
+    String getDuration();
+
+    Difficulty getDifficulty();
+
+    Region getRegion();
+
+    @Value("#{target.tourPackage.code}")
+    String getPackageCode();
+}
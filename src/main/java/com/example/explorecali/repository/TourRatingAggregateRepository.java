@@ -0,0 +1,56 @@
+package com.example.explorecali.repository;
+
+import com.example.explorecali.model.TourRatingAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RepositoryRestResource(exported = false)
+public interface TourRatingAggregateRepository extends JpaRepository<TourRatingAggregate, Integer> {
+
+    /**
+     * Look up the aggregate of a tour and lock it for the rest of the transaction,
+     * so concurrent rating writes for the same tour apply their deltas one at a time.
+     *
+     * @param tourId is the tour Identifier
+     * @return the aggregate if the tour has one
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from TourRatingAggregate a where a.tourId = :tourId")
+    Optional<TourRatingAggregate> findForUpdate(@Param("tourId") Integer tourId);
+
+    /**
+     * Look up the tour ids of every aggregate, without loading the aggregates.
+     *
+     * @return the tour Identifiers
+     */
+    @Query("select a.tourId from TourRatingAggregate a")
+    List<Integer> findAllTourIds();
+
+    /**
+     * Lock the row of a tour for the rest of the transaction, so that only one transaction at a
+     * time creates the tour's aggregate.
+     *
+     * @param tourId is the tour Identifier
+     * @return the tour id if the tour exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Tour t where t.id = :tourId")
+    Optional<Integer> lockTour(@Param("tourId") Integer tourId);
+
+    /**
+     * Look up the aggregates of several tours together with their histograms, in one query.
+     *
+     * @param tourIds the tour Identifiers
+     * @return the aggregates of the tours that have one
+     */
+    @Query("select distinct a from TourRatingAggregate a left join fetch a.histogram where a.tourId in :tourIds")
+    List<TourRatingAggregate> findAllWithHistogram(@Param("tourIds") Collection<Integer> tourIds);
+}
@@ -1,13 +1,25 @@
 package com.example.explorecali.repository;
 
+import com.example.explorecali.dto.CustomerRatingDto;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.model.Region;
 import com.example.explorecali.model.TourRating;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RepositoryRestResource(exported = false)
 @Tag(name = "Tour Rating", description = "Tour Rating API")
@@ -19,7 +31,79 @@ public interface TourRatingRepository extends JpaRepository<TourRating, Integer>
      * @param tourId is the tour Identifier
      * @return a List of any found TourRatings
      */
-    List<TourRating> findByTourId(Integer tourId);
+    @Query("select r from TourRating r where r.tour.id = :tourId")
+    List<TourRating> findByTourId(@Param("tourId") Integer tourId);
+
+    /**
+     * Look up all the ratings for a tour as DTOs, selecting only the rating columns so
+     * neither the Tour nor its TourPackage is loaded.
+     *
+     * @param tourId is the tour Identifier
+     * @return a List of any found ratings
+     */
+    @Query("select new com.example.explorecali.dto.RatingDto(r.score, r.comment, r.customerId) " +
+            "from TourRating r where r.tour.id = :tourId")
+    List<RatingDto> findRatingsByTourId(@Param("tourId") Integer tourId);
+
+    /**
+     * Look up a rating by its id as a DTO.
+     *
+     * @param id is the rating Identifier
+     * @return the rating if found
+     */
+    @Query("select new com.example.explorecali.dto.RatingDto(r.score, r.comment, r.customerId) " +
+            "from TourRating r where r.id = :id")
+    Optional<RatingDto> findRatingById(@Param("id") Integer id);
+
+    /**
+     * Look up every rating as a DTO.
+     *
+     * @return all ratings
+     */
+    @Query("select new com.example.explorecali.dto.RatingDto(r.score, r.comment, r.customerId) from TourRating r")
+    List<RatingDto> findAllRatings();
+
+    /**
+     * Look up one page of ratings for a tour, continuing after a given rating id. The rows
+     * carry the rating id for the continuation token, and nothing of the Tour.
+     *
+     * @param tourId  is the tour Identifier
+     * @param afterId the id of the last rating of the previous page, 0 for the first page
+     * @param limit   the maximum number of ratings to return
+     * @return the ratings in id order
+     */
+    @Query("select r.id as id, r.score as score, r.comment as comment, r.customerId as customerId " +
+            "from TourRating r where r.tour.id = :tourId and r.id > :afterId order by r.id")
+    List<RatingRow> findByTourIdAndIdGreaterThanOrderByIdAsc(@Param("tourId") Integer tourId,
+                                                            @Param("afterId") Integer afterId, Limit limit);
+
+    /**
+     * Look up one page of a customer's ratings across tours, continuing after a given rating id.
+     * Only the id, title and region of each tour are selected.
+     *
+     * @param customerId is the customer Identifier
+     * @param afterId    the id of the last rating of the previous page, 0 for the first page
+     * @param limit      the maximum number of ratings to return
+     * @return the ratings in id order
+     */
+    @Query("select r.id as id, r.score as score, r.comment as comment, " +
+            "t.id as tourId, t.title as tourTitle, t.region as tourRegion " +
+            "from TourRating r join r.tour t where r.customerId = :customerId and r.id > :afterId order by r.id")
+    List<CustomerRatingRow> findByCustomerIdAndIdGreaterThanOrderByIdAsc(@Param("customerId") Integer customerId,
+                                                                         @Param("afterId") Integer afterId,
+                                                                         Limit limit);
+
+    /**
+     * Stream the ratings of a tour from a database cursor, as DTOs so nothing is retained
+     * in the persistence context. Must be consumed inside a transaction and closed.
+     *
+     * @param tourId is the tour Identifier
+     * @return the ratings in id order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.explorecali.dto.RatingDto(r.score, r.comment, r.customerId) " +
+            "from TourRating r where r.tour.id = :tourId order by r.id")
+    Stream<RatingDto> streamByTourId(@Param("tourId") Integer tourId);
 
     /**
      * Look up a TourRating by the TourId and Customer Id
@@ -28,5 +112,68 @@ public interface TourRatingRepository extends JpaRepository<TourRating, Integer>
      * @param customerId
      * @return TourRating if found, null otherwise.
      */
-    Optional<TourRating> findByTourIdAndCustomerId(Integer tourId, Integer customerId);
+    @Query("select r from TourRating r where r.tour.id = :tourId and r.customerId = :customerId")
+    Optional<TourRating> findByTourIdAndCustomerId(@Param("tourId") Integer tourId,
+                                                   @Param("customerId") Integer customerId);
+
+    /**
+     * Find which of the given customers have already rated a tour, in a single query.
+     *
+     * @param tourId      is the tour Identifier
+     * @param customerIds the customers to check
+     * @return the subset of customerIds with an existing rating for the tour
+     */
+    @Query("select r.customerId from TourRating r where r.tour.id = :tourId and r.customerId in :customerIds")
+    Set<Integer> findRatedCustomerIds(@Param("tourId") Integer tourId,
+                                      @Param("customerIds") Collection<Integer> customerIds);
+
+    /**
+     * Count the ratings of every tour grouped by score, straight from the tour_rating table.
+     *
+     * @return one row per tour and score
+     */
+    @Query("select r.tour.id as tourId, r.score as score, count(r) as ratings " +
+            "from TourRating r group by r.tour.id, r.score")
+    List<ScoreCount> countByTourAndScore();
+
+    interface RatingRow {
+        Integer getId();
+
+        Integer getScore();
+
+        String getComment();
+
+        Integer getCustomerId();
+
+        default RatingDto toDto() {
+            return new RatingDto(getScore(), getComment(), getCustomerId());
+        }
+    }
+
+    interface CustomerRatingRow {
+        Integer getId();
+
+        Integer getScore();
+
+        String getComment();
+
+        Integer getTourId();
+
+        String getTourTitle();
+
+        Region getTourRegion();
+
+        default CustomerRatingDto toDto() {
+            return new CustomerRatingDto(new CustomerRatingDto.TourRef(getTourId(), getTourTitle(), getTourRegion()),
+                    getScore(), getComment());
+        }
+    }
+
+    interface ScoreCount {
+        Integer getTourId();
+
+        Integer getScore();
+
+        Long getRatings();
+    }
 }
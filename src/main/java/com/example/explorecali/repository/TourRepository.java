@@ -1,14 +1,105 @@
 package com.example.explorecali.repository;
 
+import com.example.explorecali.dto.TourSummaryDto;
 import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
 import com.example.explorecali.model.Tour;
+import com.example.explorecali.model.TourSummary;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Tag(name = "Tour", description = "Tour API")
+@RepositoryRestResource(excerptProjection = TourSummary.class)
 public interface TourRepository extends JpaRepository<Tour, Integer> {
     List<Tour> findByDifficulty(Difficulty diff);
     List<Tour> findByTourPackageCode(String code);
+
+    /**
+     * Look up the summaries of the tours of a difficulty, selecting only the summary columns.
+     *
+     * @param difficulty the difficulty
+     * @return one summary per tour
+     */
+    @RestResource(exported = false)
+    @Query("select new com.example.explorecali.dto.TourSummaryDto(t.id, t.title, t.price, t.duration, " +
+            "t.difficulty, t.region, t.tourPackage.code) from Tour t where t.difficulty = :difficulty")
+    List<TourSummaryDto> findSummariesByDifficulty(@Param("difficulty") Difficulty difficulty);
+
+    /**
+     * Look up the summaries of the tours in a package, selecting only the summary columns.
+     *
+     * @param code the package code
+     * @return one summary per tour
+     */
+    @RestResource(exported = false)
+    @Query("select new com.example.explorecali.dto.TourSummaryDto(t.id, t.title, t.price, t.duration, " +
+            "t.difficulty, t.region, t.tourPackage.code) from Tour t where t.tourPackage.code = :code")
+    List<TourSummaryDto> findSummariesByPackageCode(@Param("code") String code);
+
+    /**
+     * Look up the import fingerprint of every tour without loading the tours themselves.
+     *
+     * @return id, package code, title and fingerprint of each tour
+     */
+    @RestResource(exported = false)
+    @Query("select t.id as id, t.tourPackage.code as packageCode, t.title as title, t.fingerprint as fingerprint " +
+            "from Tour t")
+    List<TourFingerprint> findAllFingerprints();
+
+    /**
+     * Look up the fields needed to index every tour for keyword search, skipping the long text columns.
+     *
+     * @return one row per tour
+     */
+    @RestResource(exported = false)
+    @Query("select t.id as id, t.title as title, t.keywords as keywords, t.price as price, " +
+            "t.duration as duration, t.difficulty as difficulty, t.region as region, " +
+            "t.tourPackage.code as packageCode from Tour t")
+    List<IndexableTour> findAllIndexable();
+
+    /**
+     * Find which of the given ids belong to a tour, in a single query.
+     *
+     * @param ids the ids to check
+     * @return the subset of ids that exist
+     */
+    @RestResource(exported = false)
+    @Query("select t.id from Tour t where t.id in :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    interface IndexableTour {
+        Integer getId();
+
+        String getTitle();
+
+        String getKeywords();
+
+        Integer getPrice();
+
+        String getDuration();
+
+        Difficulty getDifficulty();
+
+        Region getRegion();
+
+        String getPackageCode();
+    }
+
+    interface TourFingerprint {
+        Integer getId();
+
+        String getPackageCode();
+
+        String getTitle();
+
+        String getFingerprint();
+    }
 }
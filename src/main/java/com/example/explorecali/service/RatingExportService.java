@@ -0,0 +1,234 @@
+package com.example.explorecali.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports every tour rating by reading a forward-only JDBC cursor with a fixed fetch size
+ * and writing each row out as it arrives, so heap use does not grow with the table.
+ */
+@Service
+@Slf4j
+@Timed(value = "explorecali.service", histogram = true)
+public class RatingExportService {
+    private static final String SELECT_RATINGS =
+            "select id, tour_id, customer_id, score, comment from tour_rating order by id";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Length-prefixed columnar layout written by {@link Format#BINARY}, all numbers big-endian:
+     * the magic bytes {@code ECR1}, then blocks of at most {@value #BLOCK_ROWS} rows, each an
+     * int row count followed by the id, tour_id and customer_id columns as ints, the score
+     * column as bytes and the comment column as an int byte length (-1 for null) and UTF-8
+     * bytes per row. A block with a row count of 0 ends the export. Null customer ids are
+     * written as -1.
+     */
+    public static final byte[] BINARY_MAGIC = {'E', 'C', 'R', '1'};
+    public static final int BLOCK_ROWS = 1024;
+
+    public enum Format {
+        CSV, BINARY
+    }
+
+    private JdbcTemplate jdbcTemplate;
+
+    public RatingExportService(DataSource dataSource,
+                               @Value("${explorecali.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Write every rating to a channel. The channel is not closed.
+     *
+     * @param format  CSV with a header line, or the binary columnar layout
+     * @param gzip    whether to gzip the output
+     * @param channel where to write
+     * @return the number of ratings written
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, boolean gzip, WritableByteChannel channel) throws IOException {
+        log.info("Export ratings as {}{}", format, gzip ? " gzip" : "");
+        long start = System.nanoTime();
+        OutputStream out = new NonClosingOutputStream(Channels.newOutputStream(channel));
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        out = new BufferedOutputStream(out, BUFFER_SIZE);
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new BinaryWriter(out);
+        try {
+            jdbcTemplate.query(SELECT_RATINGS, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        out.close();
+        log.info("Exported {} ratings in {} ms", writer.rows(), (System.nanoTime() - start) / 1_000_000);
+        return writer.rows();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+
+        long rows();
+    }
+
+    private static class CsvWriter implements RowWriter {
+        private final Writer out;
+        private long rows;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            this.out.write("id,tour_id,customer_id,score,comment\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            out.write(Integer.toString(rs.getInt(1)));
+            out.write(',');
+            out.write(Integer.toString(rs.getInt(2)));
+            out.write(',');
+            int customerId = rs.getInt(3);
+            if (!rs.wasNull()) {
+                out.write(Integer.toString(customerId));
+            }
+            out.write(',');
+            out.write(Integer.toString(rs.getInt(4)));
+            out.write(',');
+            String comment = rs.getString(5);
+            if (comment != null) {
+                out.write('"');
+                out.write(comment.replace("\"", "\"\""));
+                out.write('"');
+            }
+            out.write('\n');
+            rows++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public long rows() {
+            return rows;
+        }
+    }
+
+    private static class BinaryWriter implements RowWriter {
+        private final DataOutputStream out;
+        private final int[] ids = new int[BLOCK_ROWS];
+        private final int[] tourIds = new int[BLOCK_ROWS];
+        private final int[] customerIds = new int[BLOCK_ROWS];
+        private final byte[] scores = new byte[BLOCK_ROWS];
+        private final String[] comments = new String[BLOCK_ROWS];
+        private int size;
+        private long rows;
+
+        BinaryWriter(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.write(BINARY_MAGIC);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            ids[size] = rs.getInt(1);
+            tourIds[size] = rs.getInt(2);
+            int customerId = rs.getInt(3);
+            customerIds[size] = rs.wasNull() ? -1 : customerId;
+            scores[size] = (byte) rs.getInt(4);
+            comments[size] = rs.getString(5);
+            if (++size == BLOCK_ROWS) {
+                flushBlock();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (size > 0) {
+                flushBlock();
+            }
+            out.writeInt(0);
+            out.flush();
+        }
+
+        @Override
+        public long rows() {
+            return rows;
+        }
+
+        private void flushBlock() throws IOException {
+            out.writeInt(size);
+            writeColumn(ids);
+            writeColumn(tourIds);
+            writeColumn(customerIds);
+            out.write(scores, 0, size);
+            for (int i = 0; i < size; i++) {
+                if (comments[i] == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = comments[i].getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                comments[i] = null;
+            }
+            rows += size;
+            size = 0;
+        }
+
+        private void writeColumn(int[] values) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeInt(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Lets the writer chain be closed, to finish the gzip trailer, without closing the caller's channel.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
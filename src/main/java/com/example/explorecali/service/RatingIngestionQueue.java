@@ -0,0 +1,161 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.RatingDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for new ratings. Validated ratings are queued in a bounded buffer
+ * and a single writer thread saves them in group commits of up to batch-size ratings, or
+ * whatever arrived within max-delay-ms of the first one. A full queue rejects new ratings so
+ * callers can push back on clients, and stopping the application drains the queue first.
+ */
+@Component
+@Slf4j
+public class RatingIngestionQueue implements SmartLifecycle {
+    private TourRatingService tourRatingService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final BlockingQueue<PendingRating> queue;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Thread writer;
+
+    public RatingIngestionQueue(TourRatingService tourRatingService, MeterRegistry meterRegistry,
+                                @Value("${explorecali.ratings.async.enabled:false}") boolean enabled,
+                                @Value("${explorecali.ratings.async.queue-capacity:10000}") int queueCapacity,
+                                @Value("${explorecali.ratings.async.batch-size:500}") int batchSize,
+                                @Value("${explorecali.ratings.async.max-delay-ms:50}") long maxDelayMillis) {
+        this.tourRatingService = tourRatingService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("explorecali.ratings.queue.size", queue, BlockingQueue::size)
+                .description("Ratings waiting to be written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("explorecali.ratings.queue.rejected")
+                .description("Ratings rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a validated rating to be saved by the writer thread.
+     *
+     * @param tourId the tour identifier, already verified to exist
+     * @param rating the rating
+     * @throws RejectedExecutionException if the queue is full or the writer is not running
+     */
+    public void submit(int tourId, RatingDto rating) throws RejectedExecutionException {
+        if (!running || !queue.offer(new PendingRating(tourId, rating))) {
+            rejected.increment();
+            throw new RejectedExecutionException("Rating queue is full, retry later");
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        if (enabled && !running) {
+            running = true;
+            writer = new Thread(this::drain, "rating-writer");
+            writer.start();
+            log.info("Asynchronous rating ingestion started, batch size {} max delay {} ms", batchSize, maxDelayMillis);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (running) {
+            running = false;
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            log.info("Asynchronous rating ingestion stopped, queue flushed");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server, so requests accepted during shutdown are still flushed.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            List<PendingRating> batch = new ArrayList<>(batchSize);
+            try {
+                PendingRating first = queue.poll(maxDelayMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingRating next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write(batch);
+                return;
+            }
+        }
+    }
+
+    private void write(List<PendingRating> batch) {
+        try {
+            tourRatingService.createAll(batch);
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} ratings failed, saving them one by one", batch.size(), e);
+            for (PendingRating pending : batch) {
+                try {
+                    tourRatingService.createNew(pending.tourId(), pending.rating().getCustomerId(),
+                            pending.rating().getScore(), pending.rating().getComment());
+                } catch (RuntimeException ex) {
+                    log.error("Dropping rating for tour {} customer {}", pending.tourId(),
+                            pending.rating().getCustomerId(), ex);
+                }
+            }
+        }
+    }
+
+    public record PendingRating(int tourId, RatingDto rating) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.Tour;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the TourSearchIndex and the TourService catalog caches in step with changes made through
+ * the tours REST resource.
+ */
+@Component
+@RepositoryEventHandler
+public class TourEventHandler {
+    private TourSearchIndex tourSearchIndex;
+    private TourService tourService;
+
+    public TourEventHandler(TourSearchIndex tourSearchIndex, TourService tourService) {
+        this.tourSearchIndex = tourSearchIndex;
+        this.tourService = tourService;
+    }
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    public void handleAfterSave(Tour tour) {
+        tourSearchIndex.index(tour);
+        tourService.evictCatalog();
+    }
+
+    @HandleAfterDelete
+    public void handleAfterDelete(Tour tour) {
+        tourSearchIndex.remove(tour.getId());
+        tourService.evictCatalog();
+    }
+}
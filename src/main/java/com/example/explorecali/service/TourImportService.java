@@ -0,0 +1,162 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.model.TourPackage;
+import com.example.explorecali.repository.TourRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Imports the tour catalog from a JSON array of tours. The file is read one tour at a time
+ * with the Jackson streaming parser, its package is resolved from the TourPackageService
+ * registry, and tours are saved in chunks, so the catalog never has to fit in memory and
+ * each chunk is a single transaction of batched inserts.
+ * <p>
+ * Tours are matched to stored tours by package and title. Each record's content hash is
+ * compared with the fingerprint stored on the tour, so only new or changed tours are written
+ * and re-importing an unchanged catalog writes nothing.
+ */
+@Service
+@Timed(value = "explorecali.service", histogram = true)
+@Slf4j
+public class TourImportService {
+    private static final int CHUNK_SIZE = 500;
+
+    private TourPackageService tourPackageService;
+    private TourRepository tourRepository;
+    private TourService tourService;
+    private TourSearchIndex tourSearchIndex;
+    private ObjectMapper objectMapper;
+
+    public TourImportService(TourPackageService tourPackageService, TourRepository tourRepository,
+                             TourService tourService, TourSearchIndex tourSearchIndex, ObjectMapper objectMapper) {
+        this.tourPackageService = tourPackageService;
+        this.tourRepository = tourRepository;
+        this.tourService = tourService;
+        this.tourSearchIndex = tourSearchIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportResult importTours(String fileToImport) throws IOException {
+        long start = System.nanoTime();
+        Map<String, TourRepository.TourFingerprint> stored = tourRepository.findAllFingerprints().stream()
+                .collect(Collectors.toMap(f -> key(f.getPackageCode(), f.getTitle()), Function.identity(),
+                        (first, second) -> first));
+        Set<String> seen = new HashSet<>();
+        List<Tour> inserts = new ArrayList<>(CHUNK_SIZE);
+        Map<Integer, Tour> updates = new HashMap<>();
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(new File(fileToImport))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of tours in " + fileToImport);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                TourFromFile record = objectMapper.readValue(parser, TourFromFile.class);
+                Tour tour = record.toTour(tourPackageService);
+                String key = key(tour.getTourPackage().getCode(), tour.getTitle());
+                if (!seen.add(key)) {
+                    log.warn("Skipping repeated tour {} in {}", key, fileToImport);
+                    continue;
+                }
+                TourRepository.TourFingerprint existing = stored.get(key);
+                if (existing == null) {
+                    inserts.add(tour);
+                } else if (!Objects.equals(existing.getFingerprint(), tour.getFingerprint())) {
+                    updates.put(existing.getId(), tour);
+                } else {
+                    unchanged++;
+                }
+                if (inserts.size() == CHUNK_SIZE) {
+                    inserted += tourService.createTours(inserts).size();
+                    inserts.clear();
+                }
+                if (updates.size() == CHUNK_SIZE) {
+                    updated += tourService.updateTours(updates).size();
+                    updates.clear();
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            inserted += tourService.createTours(inserts).size();
+        }
+        if (!updates.isEmpty()) {
+            updated += tourService.updateTours(updates).size();
+        }
+        tourSearchIndex.rebuild();
+        ImportResult result = new ImportResult(inserted, updated, unchanged, (System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} tours from {} in {} ms ({} tours/s): {} inserted, {} updated, {} unchanged",
+                result.tours(), fileToImport, result.millis(), result.toursPerSecond(),
+                result.inserted(), result.updated(), result.unchanged());
+        return result;
+    }
+
+    private static String key(String packageCode, String title) {
+        return packageCode + '|' + title;
+    }
+
+    public record ImportResult(int inserted, int updated, int unchanged, long millis) {
+        public int tours() {
+            return inserted + updated + unchanged;
+        }
+
+        public long toursPerSecond() {
+            return millis == 0 ? tours() * 1000L : tours() * 1000L / millis;
+        }
+    }
+
+    public record TourFromFile(String packageName, String title, String description,
+                               String blurb, Integer price, String length, String bullets,
+                               String keywords, String difficulty, String region) {
+
+        Tour toTour(TourPackageService tourPackageService) {
+            TourPackage tourPackage = tourPackageService.lookupByName(packageName)
+                    .orElseThrow(() -> new RuntimeException("Tour Package not found for id:" + packageName));
+            Tour tour = new Tour(title, description, blurb, price, length, bullets, keywords, tourPackage,
+                    Difficulty.valueOf(difficulty), Region.findByLabel(region));
+            tour.setFingerprint(fingerprint());
+            return tour;
+        }
+
+        /**
+         * @return SHA-256 of the record's content, in hex.
+         */
+        String fingerprint() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                Stream.of(packageName, title, description, blurb, price, length, bullets, keywords, difficulty, region)
+                        .forEach(field -> {
+                            digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+                            digest.update((byte) 0);
+                        });
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.TopRatedTourDto;
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.TourRatingAggregate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tours ordered by average score, then by number of ratings. The ordering is kept in memory
+ * and follows the rating totals as they commit, so reading the top N walks N entries (plus
+ * the ones a filter skips) whatever the number of ratings. Each tour remembers the revision
+ * of the totals it is ranked by, and older totals never replace newer ones, so commits that
+ * finish out of order can't leave a stale ranking behind. Updates run under a ReentrantLock
+ * rather than a monitor, which would pin virtual threads to their carrier.
+ */
+@Component
+@Slf4j
+public class TourLeaderboard {
+    private static final Comparator<Ranked> BEST_FIRST = Comparator.comparingDouble(Ranked::average).reversed()
+            .thenComparing(Comparator.comparingLong(Ranked::ratings).reversed())
+            .thenComparingInt(Ranked::tourId);
+
+    private TourRatingAggregateService aggregateService;
+    private TourSearchIndex tourSearchIndex;
+    private final NavigableSet<Ranked> ranking = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private final Map<Integer, Ranked> byTour = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> revisions = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public TourLeaderboard(TourRatingAggregateService aggregateService, TourSearchIndex tourSearchIndex) {
+        this.aggregateService = aggregateService;
+        this.tourSearchIndex = tourSearchIndex;
+    }
+
+    /**
+     * Bring the ranking up to the stored totals of every tour. Totals older than the ones a
+     * tour is already ranked by are skipped.
+     */
+    public void rebuild() {
+        lock.lock();
+        try {
+            for (TourRatingAggregate aggregate : aggregateService.lookupAll()) {
+                rank(aggregate.getTourId(), aggregate.getCount(), aggregate.getSum(), aggregate.getRevision());
+            }
+            log.info("Ranked {} rated tours", byTour.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-rank a tour once the change to its totals has committed, unless it is already ranked
+     * by a later revision.
+     *
+     * @param changed the new totals of the tour
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChanged(TourRatingAggregateService.Changed changed) {
+        lock.lock();
+        try {
+            rank(changed.tourId(), changed.count(), changed.sum(), changed.revision());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRebuilt(TourRatingAggregateService.Rebuilt rebuilt) {
+        rebuild();
+    }
+
+    /**
+     * List the best rated tours.
+     *
+     * @param limit      maximum number of tours to return
+     * @param minRatings only tours with at least this many ratings
+     * @param region     only tours in this region, if not null
+     * @param difficulty only tours of this difficulty, if not null
+     * @return the tours, best first
+     */
+    public List<TopRatedTourDto> top(int limit, long minRatings, Region region, Difficulty difficulty) {
+        List<TopRatedTourDto> top = new ArrayList<>(Math.min(limit, byTour.size()));
+        for (Ranked ranked : ranking) {
+            if (top.size() == limit) {
+                break;
+            }
+            if (ranked.ratings() < minRatings) {
+                continue;
+            }
+            Optional<TourSummaryDto> tour = tourSearchIndex.lookup(ranked.tourId());
+            if (tour.isPresent()
+                    && (region == null || region == tour.get().region())
+                    && (difficulty == null || difficulty == tour.get().difficulty())) {
+                top.add(new TopRatedTourDto(tour.get(), ranked.average(), ranked.ratings()));
+            }
+        }
+        return top;
+    }
+
+    private void rank(int tourId, long count, long sum, long revision) {
+        Long ranked = revisions.get(tourId);
+        if (ranked != null && ranked >= revision) {
+            return;
+        }
+        revisions.put(tourId, revision);
+        Ranked previous = count == 0 ? byTour.remove(tourId)
+                : byTour.put(tourId, new Ranked((double) sum / count, count, tourId));
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (count != 0) {
+            ranking.add(byTour.get(tourId));
+        }
+    }
+
+    private record Ranked(double average, long ratings, int tourId) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.TourPackage;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the TourPackageService registry in step with changes made through the packages REST resource.
+ */
+@Component
+@RepositoryEventHandler
+public class TourPackageEventHandler {
+    private TourPackageService tourPackageService;
+
+    public TourPackageEventHandler(TourPackageService tourPackageService) {
+        this.tourPackageService = tourPackageService;
+    }
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    public void handleAfterSave(TourPackage tourPackage) {
+        tourPackageService.register(tourPackage);
+    }
+
+    @HandleAfterDelete
+    public void handleAfterDelete(TourPackage tourPackage) {
+        tourPackageService.unregister(tourPackage);
+    }
+}
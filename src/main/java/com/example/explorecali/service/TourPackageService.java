@@ -2,31 +2,105 @@ package com.example.explorecali.service;
 
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.example.explorecali.model.TourPackage;
 import com.example.explorecali.repository.TourPackageRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 
+/**
+ * Tour package operations. Packages are a small, nearly static set, so they are loaded
+ * once into an in-process registry indexed by code and by name; writes made through this
+ * service or the packages REST resource update the registry as well as the database.
+ */
 @Service
+@Timed(value = "explorecali.service", histogram = true)
 public class TourPackageService {
     private TourPackageRepository tourPackageRepository;
+    private final Map<String, TourPackage> packagesByCode = new ConcurrentHashMap<>();
+    private final Map<String, TourPackage> packagesByName = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final ReentrantLock loadLock = new ReentrantLock();
 
     public TourPackageService(TourPackageRepository tourPackageRepository) {
         this.tourPackageRepository = tourPackageRepository;
     }
 
     public TourPackage createTourPackage(String code, String name) {
-        return tourPackageRepository.findById(code)
-                .orElse(tourPackageRepository.save(new TourPackage(code, name)));
+        return lookupByCode(code)
+                .orElseGet(() -> register(tourPackageRepository.save(new TourPackage(code, name))));
+    }
+
+    public Optional<TourPackage> lookupByCode(String code) {
+        load();
+        return Optional.ofNullable(packagesByCode.get(code));
+    }
+
+    public Optional<TourPackage> lookupByName(String name) {
+        load();
+        return Optional.ofNullable(packagesByName.get(name));
     }
 
     public List<TourPackage> lookupAll() {
-        return tourPackageRepository.findAll();
+        load();
+        return List.copyOf(packagesByCode.values());
     }
 
     public long total() {
         return tourPackageRepository.count();
     }
+
+    /**
+     * Add or replace a package in the registry after it has been saved.
+     *
+     * @param tourPackage the saved package
+     * @return the package
+     */
+    public TourPackage register(TourPackage tourPackage) {
+        load();
+        return put(tourPackage);
+    }
+
+    /**
+     * Drop a package from the registry after it has been deleted.
+     *
+     * @param tourPackage the deleted package
+     */
+    public void unregister(TourPackage tourPackage) {
+        load();
+        TourPackage previous = packagesByCode.remove(tourPackage.getCode());
+        if (previous != null) {
+            packagesByName.remove(previous.getName(), previous);
+        }
+    }
+
+    private TourPackage put(TourPackage tourPackage) {
+        TourPackage previous = packagesByCode.put(tourPackage.getCode(), tourPackage);
+        if (previous != null) {
+            packagesByName.remove(previous.getName(), previous);
+        }
+        packagesByName.put(tourPackage.getName(), tourPackage);
+        return tourPackage;
+    }
+
+    private void load() {
+        if (!loaded) {
+            // not a monitor: the first load queries the database and would pin a virtual thread
+            loadLock.lock();
+            try {
+                if (!loaded) {
+                    tourPackageRepository.findAll().forEach(this::put);
+                    loaded = true;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+    }
 }
@@ -0,0 +1,192 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.TourRatingAggregate;
+import com.example.explorecali.repository.TourRatingAggregateRepository;
+import com.example.explorecali.repository.TourRatingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the per tour rating totals. The record methods join the transaction of the
+ * rating write that triggered them, so the totals commit or roll back with the rating.
+ * Every change publishes an event, for listeners that follow the totals after commit.
+ */
+@Service
+@Slf4j
+public class TourRatingAggregateService {
+    private TourRatingAggregateRepository aggregateRepository;
+    private TourRatingRepository tourRatingRepository;
+    private ApplicationEventPublisher eventPublisher;
+
+    public TourRatingAggregateService(TourRatingAggregateRepository aggregateRepository,
+                                      TourRatingRepository tourRatingRepository,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.aggregateRepository = aggregateRepository;
+        this.tourRatingRepository = tourRatingRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TourRatingAggregate> lookup(int tourId) {
+        return aggregateRepository.findById(tourId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TourRatingAggregate> lookupAll() {
+        return aggregateRepository.findAll();
+    }
+
+    /**
+     * Look up the totals of several tours, histograms included, in one query.
+     *
+     * @param tourIds the tour identifiers
+     * @return the aggregates by tour id, for the tours that have one
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, TourRatingAggregate> lookupAll(Collection<Integer> tourIds) {
+        Map<Integer, TourRatingAggregate> found = new HashMap<>();
+        aggregateRepository.findAllWithHistogram(tourIds).forEach(a -> found.put(a.getTourId(), a));
+        return found;
+    }
+
+    @Transactional
+    public void recordNew(int tourId, Integer score, long ratings) {
+        if (ratings > 0) {
+            TourRatingAggregate aggregate = lockAggregate(tourId);
+            aggregate.add(score, ratings);
+            eventPublisher.publishEvent(Changed.of(aggregate));
+        }
+    }
+
+    @Transactional
+    public void recordChanged(int tourId, Integer oldScore, Integer newScore) {
+        TourRatingAggregate aggregate = lockAggregate(tourId);
+        aggregate.change(oldScore, newScore);
+        eventPublisher.publishEvent(Changed.of(aggregate));
+    }
+
+    @Transactional
+    public void recordRemoved(int tourId, Integer score) {
+        TourRatingAggregate aggregate = lockAggregate(tourId);
+        aggregate.remove(score);
+        eventPublisher.publishEvent(Changed.of(aggregate));
+    }
+
+    /**
+     * Compare the stored totals with totals computed from the tour_rating table.
+     *
+     * @return the tours whose stored totals have drifted
+     */
+    @Transactional(readOnly = true)
+    public List<Drift> verify() {
+        Map<Integer, TourRatingAggregate> actual = computeFromRatings();
+        List<Drift> drifts = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (TourRatingAggregate stored : aggregateRepository.findAll()) {
+            seen.add(stored.getTourId());
+            TourRatingAggregate expected = actual.getOrDefault(stored.getTourId(),
+                    new TourRatingAggregate(stored.getTourId()));
+            if (!sameTotals(stored, expected)) {
+                drifts.add(new Drift(stored.getTourId(), stored.getCount(), expected.getCount(),
+                        stored.getSum(), expected.getSum()));
+            }
+        }
+        actual.values().stream()
+                .filter(expected -> !seen.contains(expected.getTourId()))
+                .forEach(expected -> drifts.add(new Drift(expected.getTourId(), 0, expected.getCount(),
+                        0, expected.getSum())));
+        log.info("Verified rating aggregates, {} drifted", drifts.size());
+        return drifts;
+    }
+
+    /**
+     * Recompute every stored total from the tour_rating table. Every aggregate is locked, in tour
+     * id order like the rating writes lock them, before the ratings are counted. A rating written
+     * meanwhile is then either counted here, or added by its own transaction once the rebuilt
+     * totals have committed, and never lost by the rebuild overwriting its update.
+     *
+     * @return the number of tours whose totals were rebuilt
+     */
+    @Transactional
+    public int rebuild() {
+        Set<Integer> tourIds = new TreeSet<>(aggregateRepository.findAllTourIds());
+        tourIds.addAll(computeFromRatings().keySet());
+        List<TourRatingAggregate> locked = tourIds.stream().map(this::lockAggregate).toList();
+        Map<Integer, TourRatingAggregate> actual = computeFromRatings();
+        for (TourRatingAggregate aggregate : locked) {
+            aggregate.reset();
+            TourRatingAggregate expected = actual.get(aggregate.getTourId());
+            if (expected != null) {
+                expected.getHistogram().forEach(aggregate::add);
+            }
+        }
+        eventPublisher.publishEvent(new Rebuilt());
+        log.info("Rebuilt rating aggregates for {} tours", locked.size());
+        return locked.size();
+    }
+
+    /**
+     * Lock the aggregate of a tour, creating it first if needed. The first ratings of a tour can
+     * arrive concurrently, so creators lock the tour row and look again before inserting; the
+     * ones that waited then find the aggregate committed by the first.
+     */
+    private TourRatingAggregate lockAggregate(int tourId) {
+        return aggregateRepository.findForUpdate(tourId).orElseGet(() -> {
+            aggregateRepository.lockTour(tourId);
+            return aggregateRepository.findForUpdate(tourId)
+                    .orElseGet(() -> aggregateRepository.save(new TourRatingAggregate(tourId)));
+        });
+    }
+
+    private Map<Integer, TourRatingAggregate> computeFromRatings() {
+        Map<Integer, TourRatingAggregate> actual = new HashMap<>();
+        for (TourRatingRepository.ScoreCount row : tourRatingRepository.countByTourAndScore()) {
+            actual.computeIfAbsent(row.getTourId(), TourRatingAggregate::new)
+                    .add(row.getScore(), row.getRatings());
+        }
+        return actual;
+    }
+
+    private static boolean sameTotals(TourRatingAggregate a, TourRatingAggregate b) {
+        return a.getCount() == b.getCount() && a.getSum() == b.getSum()
+                && a.getHistogram().equals(b.getHistogram());
+    }
+
+    /**
+     * The totals of a tour changed. The event carries the totals as written, because listeners
+     * that run after commit can't read them back reliably; when events for one tour arrive out
+     * of order, the revision tells which totals are the latest.
+     *
+     * @param tourId   the tour identifier
+     * @param count    number of ratings
+     * @param sum      sum of the scores
+     * @param revision revision of the aggregate holding these totals
+     */
+    public record Changed(int tourId, long count, long sum, long revision) {
+        static Changed of(TourRatingAggregate aggregate) {
+            return new Changed(aggregate.getTourId(), aggregate.getCount(), aggregate.getSum(),
+                    aggregate.getRevision());
+        }
+    }
+
+    /**
+     * The totals of every tour were recomputed.
+     */
+    public record Rebuilt() {
+    }
+
+    public record Drift(Integer tourId, long storedCount, long actualCount, long storedSum, long actualSum) {
+    }
+}
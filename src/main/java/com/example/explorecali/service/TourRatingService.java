@@ -1,99 +1,339 @@
 package com.example.explorecali.service;
 
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.CustomerRatingDto;
+import com.example.explorecali.dto.KeysetPage;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.dto.TourAverageDto;
 import com.example.explorecali.model.Tour;
 import com.example.explorecali.model.TourRating;
+import com.example.explorecali.model.TourRatingAggregate;
 import com.example.explorecali.repository.TourRatingRepository;
 import com.example.explorecali.repository.TourRepository;
-import jakarta.validation.ConstraintViolationException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
+@Timed(value = "explorecali.service", histogram = true)
 public class TourRatingService {
     private TourRatingRepository tourRatingRepository;
     private TourRepository tourRepository;
+    private TourRatingAggregateService aggregateService;
+    private MeterRegistry meterRegistry;
+    private ApplicationEventPublisher eventPublisher;
 
-    public TourRatingService(TourRatingRepository tourRatingRepository, TourRepository tourRepository) {
+    public TourRatingService(TourRatingRepository tourRatingRepository, TourRepository tourRepository,
+                             TourRatingAggregateService aggregateService, MeterRegistry meterRegistry,
+                             ApplicationEventPublisher eventPublisher) {
         this.tourRatingRepository = tourRatingRepository;
         this.tourRepository = tourRepository;
+        this.aggregateService = aggregateService;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public TourRating createNew(int tourId, Integer customerId, Integer score, String comment) throws NoSuchElementException {
-        log.info("Create a tour rating for tour {} and customer {}", tourId, String.valueOf(customerId));
-        return tourRatingRepository.save(new TourRating(verifyTour(tourId), customerId,
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customerId", customerId).log("Create a tour rating");
+        TourRating rating = tourRatingRepository.save(new TourRating(verifyTour(tourId), customerId,
                 score, comment));
+        aggregateService.recordNew(tourId, score, 1);
+        eventPublisher.publishEvent(new RatingsChanged(tourId));
+        return rating;
     }
 
-    public Optional<TourRating> lookupRatingById(int id) {
-        log.info("lookup rating by id {}", id);
-        return tourRatingRepository.findById(id);
+    /**
+     * Save ratings queued by the RatingIngestionQueue in one transaction. The tours were
+     * verified when the ratings were queued, so they are referenced without loading them.
+     *
+     * @param pending the queued ratings, possibly for several tours
+     * @return the saved ratings
+     */
+    @Transactional
+    public List<TourRating> createAll(List<RatingIngestionQueue.PendingRating> pending) {
+        log.atInfo().addKeyValue("ratings", pending.size()).log("Create queued tour ratings");
+        List<TourRating> ratings = new ArrayList<>(pending.size());
+        // tours in id order, the order rebuilding the aggregates locks them in
+        Map<Integer, Map<Integer, Long>> newScores = new TreeMap<>();
+        for (RatingIngestionQueue.PendingRating p : pending) {
+            RatingDto rating = p.rating();
+            ratings.add(new TourRating(tourRepository.getReferenceById(p.tourId()), rating.getCustomerId(),
+                    rating.getScore(), rating.getComment()));
+            newScores.computeIfAbsent(p.tourId(), t -> new HashMap<>()).merge(rating.getScore(), 1L, Long::sum);
+        }
+        List<TourRating> saved = tourRatingRepository.saveAll(ratings);
+        batchSize("createAll").record(saved.size());
+        newScores.forEach((tourId, scores) -> {
+            scores.forEach((score, count) -> aggregateService.recordNew(tourId, score, count));
+            eventPublisher.publishEvent(new RatingsChanged(tourId));
+        });
+        return saved;
+    }
+
+    public Optional<RatingDto> lookupRatingById(int id) {
+        log.atInfo().addKeyValue("id", id).log("Lookup rating by id");
+        return tourRatingRepository.findRatingById(id);
     }
 
-    public List<TourRating> lookupAll() {
+    public List<RatingDto> lookupAll() {
         log.info("Lookup all tour ratings");
-        return tourRatingRepository.findAll();
+        return tourRatingRepository.findAllRatings();
+    }
+
+    public List<RatingDto> lookupRatings(int tourId) throws NoSuchElementException {
+        log.atInfo().addKeyValue("tourId", tourId).log("Lookup ratings for tour");
+        verifyTourExists(tourId);
+        List<RatingDto> ratings = tourRatingRepository.findRatingsByTourId(tourId);
+        ratingsLoaded("lookupRatings").record(ratings.size());
+        return ratings;
+    }
+
+    /**
+     * Look up one page of ratings for a tour, ordered by rating id.
+     *
+     * @param tourId the tour identifier
+     * @param after  continuation token from the previous page, null for the first page
+     * @param size   maximum number of ratings in the page
+     * @return the page and the token for the next one
+     */
+    public KeysetPage<RatingDto> lookupRatings(int tourId, String after, int size) throws NoSuchElementException {
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("after", after).log("Lookup ratings page for tour");
+        verifyTourExists(tourId);
+        List<TourRatingRepository.RatingRow> ratings = tourRatingRepository.findByTourIdAndIdGreaterThanOrderByIdAsc(
+                tourId, KeysetPage.decode(after), Limit.of(size));
+        ratingsLoaded("lookupRatingsPage").record(ratings.size());
+        String next = ratings.size() < size ? null : KeysetPage.encode(ratings.get(ratings.size() - 1).getId());
+        return new KeysetPage<>(ratings.stream().map(TourRatingRepository.RatingRow::toDto).toList(), next);
+    }
+
+    /**
+     * Look up one page of a customer's ratings across all tours, ordered by rating id.
+     *
+     * @param customerId the customer identifier
+     * @param after      continuation token from the previous page, null for the first page
+     * @param size       maximum number of ratings in the page
+     * @return the page and the token for the next one
+     */
+    public KeysetPage<CustomerRatingDto> lookupCustomerRatings(int customerId, String after, int size) {
+        log.atInfo().addKeyValue("customerId", customerId).addKeyValue("after", after).log("Lookup ratings page of customer");
+        List<TourRatingRepository.CustomerRatingRow> ratings =
+                tourRatingRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(customerId,
+                        KeysetPage.decode(after), Limit.of(size));
+        ratingsLoaded("lookupCustomerRatings").record(ratings.size());
+        String next = ratings.size() < size ? null : KeysetPage.encode(ratings.get(ratings.size() - 1).getId());
+        return new KeysetPage<>(ratings.stream().map(TourRatingRepository.CustomerRatingRow::toDto).toList(), next);
     }
 
-    public List<TourRating> lookupRatings(int tourId) throws NoSuchElementException {
-        log.info("Lookup ratings for tour {}", tourId);
-        return tourRatingRepository.findByTourId(verifyTour(tourId).getId());
+    /**
+     * Pass every rating of a tour to an action, reading them from a database cursor
+     * so memory use does not depend on the number of ratings.
+     *
+     * @param tourId the tour identifier
+     * @param action invoked once per rating, in rating id order
+     */
+    @Transactional(readOnly = true)
+    public void streamRatings(int tourId, Consumer<RatingDto> action) {
+        log.atInfo().addKeyValue("tourId", tourId).log("Stream ratings for tour");
+        long[] rows = {0};
+        try (Stream<RatingDto> ratings = tourRatingRepository.streamByTourId(tourId)) {
+            ratings.forEach(rating -> {
+                rows[0]++;
+                action.accept(rating);
+            });
+        } finally {
+            ratingsLoaded("streamRatings").record(rows[0]);
+        }
     }
 
+    @Transactional
     public TourRating update(int tourId, Integer customerId, Integer score, String comment)
             throws NoSuchElementException {
-        log.info("Update tour {} customer {}", tourId, customerId);
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customerId", customerId).log("Update a tour rating");
         TourRating rating = verifyTourRating(tourId, customerId);
+        Integer oldScore = rating.getScore();
         rating.setScore(score);
         rating.setComment(comment);
-        return tourRatingRepository.save(rating);
+        TourRating saved = tourRatingRepository.save(rating);
+        aggregateService.recordChanged(tourId, oldScore, score);
+        eventPublisher.publishEvent(new RatingsChanged(tourId));
+        return saved;
     }
 
+    @Transactional
     public TourRating updateSome(int tourId, Integer customerId, Optional<Integer> score, Optional<String> comment)
             throws NoSuchElementException {
-        log.info("Update some of tour {} customer {}", tourId, customerId);
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customerId", customerId).log("Update some of a tour rating");
         TourRating rating = verifyTourRating(tourId, customerId);
+        Integer oldScore = rating.getScore();
         score.ifPresent(s ->rating.setScore(s));
         comment.ifPresent(c -> rating.setComment(c));
-        return tourRatingRepository.save(rating);
+        TourRating saved = tourRatingRepository.save(rating);
+        if (score.isPresent()) {
+            aggregateService.recordChanged(tourId, oldScore, score.get());
+        }
+        eventPublisher.publishEvent(new RatingsChanged(tourId));
+        return saved;
     }
 
+    @Transactional
     public void delete(int tourId, Integer customerId) throws NoSuchElementException {
-        log.info("Delete rating for tour {} customer {}", tourId, customerId);
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customerId", customerId).log("Delete a tour rating");
         TourRating rating = verifyTourRating(tourId, customerId);
         tourRatingRepository.delete(rating);
+        aggregateService.recordRemoved(tourId, rating.getScore());
+        eventPublisher.publishEvent(new RatingsChanged(tourId));
     }
 
+    /**
+     * Read the average from the tour's rating totals rather than scanning its ratings.
+     *
+     * @param tourId the tour identifier
+     * @return the average score, or null when the tour has no ratings
+     */
     public Double getAverageScore(int tourId) throws NoSuchElementException {
-        List<TourRating> ratings = tourRatingRepository.findByTourId(verifyTour(tourId).getId());
-        OptionalDouble average = ratings.stream().mapToInt((rating) -> rating.getScore()).average();
-        return average.isPresent() ? average.getAsDouble() : null;
+        return aggregateService.lookup(tourId)
+                .or(() -> {
+                    verifyTourExists(tourId);
+                    return Optional.empty();
+                })
+                .map(aggregate -> aggregate.getAverage())
+                .orElse(null);
+    }
+
+    /**
+     * Look up the rating totals of several tours with one aggregate query, plus one query to
+     * tell tours without ratings from unknown ids.
+     *
+     * @param tourIds the tour identifiers, duplicates are ignored
+     * @return the totals of each tour, in request order
+     */
+    public List<TourAverageDto> getAverages(Collection<Integer> tourIds) {
+        log.atInfo().addKeyValue("tours", tourIds.size()).log("Lookup averages");
+        Set<Integer> ids = new LinkedHashSet<>(tourIds);
+        Map<Integer, TourRatingAggregate> aggregates = aggregateService.lookupAll(ids);
+        Set<Integer> unrated = new HashSet<>(ids);
+        unrated.removeAll(aggregates.keySet());
+        Set<Integer> existing = unrated.isEmpty() ? Set.of() : tourRepository.findExistingIds(unrated);
+        List<TourAverageDto> averages = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            TourRatingAggregate aggregate = aggregates.get(id);
+            if (aggregate != null && aggregate.getCount() > 0) {
+                averages.add(new TourAverageDto(id, TourAverageDto.Status.RATED, aggregate.getAverage(),
+                        aggregate.getCount(), Map.copyOf(aggregate.getHistogram())));
+            } else if (aggregate != null || existing.contains(id)) {
+                averages.add(new TourAverageDto(id, TourAverageDto.Status.NOT_RATED, null, 0, Map.of()));
+            } else {
+                averages.add(new TourAverageDto(id, TourAverageDto.Status.UNKNOWN_TOUR, null, 0, Map.of()));
+            }
+        }
+        return averages;
     }
 
-    public void rateMany(int tourId,  int score, List<Integer> customers) {
+    /**
+     * Rate a tour for many customers in one transaction. Existing ratings are found with a
+     * single query and the new ratings are inserted as JDBC batches; customers that already
+     * rated the tour, or appear twice in the request, are skipped and reported. A rating that
+     * another request inserts in the meantime trips the (tour_id, customer_id) unique constraint,
+     * and the whole batch rolls back with a DataIntegrityViolationException.
+     *
+     * @param tourId    the tour identifier
+     * @param score     the score given by every customer
+     * @param customers the customer identifiers
+     * @return the outcome for each customer
+     */
+    @Transactional
+    public BatchRatingReport rateMany(int tourId,  int score, List<Integer> customers) {
+        log.atInfo().addKeyValue("tourId", tourId).addKeyValue("customers", customers.size()).log("Rate a tour for many customers");
         Tour tour = verifyTour(tourId);
+        Set<Integer> rated = tourRatingRepository.findRatedCustomerIds(tourId, customers);
+        Set<Integer> requested = new HashSet<>();
+        List<TourRating> ratings = new ArrayList<>(customers.size());
+        List<BatchRatingReport.CustomerOutcome> outcomes = new ArrayList<>(customers.size());
         for (Integer c : customers) {
-            if (tourRatingRepository.findByTourIdAndCustomerId(tourId, c).isPresent()) {
-                throw new ConstraintViolationException("Unable to create duplicate ratings", null);
+            BatchRatingReport.Outcome outcome;
+            if (rated.contains(c)) {
+                outcome = BatchRatingReport.Outcome.ALREADY_RATED;
+            } else if (!requested.add(c)) {
+                outcome = BatchRatingReport.Outcome.DUPLICATE_IN_REQUEST;
+            } else {
+                outcome = BatchRatingReport.Outcome.CREATED;
+                ratings.add(new TourRating(tour, c, score));
             }
-            tourRatingRepository.save(new TourRating(tour, c, score));
+            outcomes.add(new BatchRatingReport.CustomerOutcome(c, outcome));
         }
+        tourRatingRepository.saveAll(ratings);
+        batchSize("rateMany").record(customers.size());
+        aggregateService.recordNew(tourId, score, ratings.size());
+        if (!ratings.isEmpty()) {
+            eventPublisher.publishEvent(new RatingsChanged(tourId));
+        }
+        return new BatchRatingReport(ratings.size(), customers.size() - ratings.size(), outcomes);
+    }
+
+    private DistributionSummary ratingsLoaded(String operation) {
+        return DistributionSummary.builder("explorecali.ratings.loaded")
+                .description("Ratings read from the database per request")
+                .baseUnit("ratings")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 
-    private Tour verifyTour(int tourId) throws NoSuchElementException {
+    private DistributionSummary batchSize(String operation) {
+        return DistributionSummary.builder("explorecali.ratings.batch.size")
+                .description("Ratings written per batch")
+                .baseUnit("ratings")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    public Tour verifyTour(int tourId) throws NoSuchElementException {
         return tourRepository.findById(tourId)
                 .orElseThrow(() -> new NoSuchElementException("Tour does not exist " + tourId));
     }
 
+    /**
+     * Check that a tour exists without loading it, for read paths that only need its id.
+     *
+     * @param tourId the tour identifier
+     */
+    public void verifyTourExists(int tourId) throws NoSuchElementException {
+        if (!tourRepository.existsById(tourId)) {
+            throw new NoSuchElementException("Tour does not exist " + tourId);
+        }
+    }
+
     public TourRating verifyTourRating(int tourId, int customerId) throws NoSuchElementException {
         return tourRatingRepository.findByTourIdAndCustomerId(tourId, customerId)
                 .orElseThrow(() -> new NoSuchElementException("Tour-Rating pair for request: " 
                     + tourId + " for customer " + customerId));
     }
 
-}
\ No newline at end of file
+    /**
+     * The ratings of a tour were written.
+     *
+     * @param tourId the tour identifier
+     */
+    public record RatingsChanged(int tourId) {
+    }
+}
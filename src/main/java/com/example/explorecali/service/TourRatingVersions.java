@@ -0,0 +1,49 @@
+package com.example.explorecali.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory version of the ratings of each tour, used to answer conditional GETs without
+ * reading the ratings. A version moves on once a rating write has committed, so a response
+ * tagged with a version never holds ratings older than that version. The tag also carries
+ * an epoch taken at startup, so tags handed out by an earlier run never match.
+ */
+@Component
+@Slf4j
+public class TourRatingVersions {
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Build the weak entity tag of a representation of a tour's ratings. Read it before
+     * reading the ratings themselves. The tag is weak because the same ratings go out as JSON,
+     * CBOR or Smile, compressed or not, all under the one tag.
+     *
+     * @param tourId         the tour identifier
+     * @param representation distinguishes the representations served for the same tour
+     * @return the quoted entity tag
+     */
+    public String etag(int tourId, String representation) {
+        return "W/\"" + representation + "-" + epoch + "-" + versions.getOrDefault(tourId, 0L) + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRatingsChanged(TourRatingService.RatingsChanged changed) {
+        versions.merge(changed.tourId(), 1L, Long::sum);
+    }
+
+    /**
+     * Rebuilding the aggregates can change any average, so every tag is invalidated.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAggregatesRebuilt(TourRatingAggregateService.Rebuilt rebuilt) {
+        epoch = Long.toString(System.currentTimeMillis(), 36) + "." + Long.toString(System.nanoTime(), 36);
+        log.info("Invalidated rating entity tags");
+    }
+}
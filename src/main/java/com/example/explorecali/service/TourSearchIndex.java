@@ -0,0 +1,248 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.repository.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over tour titles and keywords. Each token maps to the sorted ids
+ * of the tours containing it, so term queries are merges of small sorted int arrays and never
+ * touch the database. The index is rebuilt after an import and updated as tours are created,
+ * changed or deleted.
+ */
+@Component
+@Slf4j
+public class TourSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] NO_TOURS = new int[0];
+
+    public enum Match {
+        ALL, ANY
+    }
+
+    private TourRepository tourRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, int[]> postings = new HashMap<>();
+    private Map<Integer, IndexedTour> tours = new HashMap<>();
+
+    public TourSearchIndex(TourRepository tourRepository) {
+        this.tourRepository = tourRepository;
+    }
+
+    /**
+     * Replace the index contents with every tour in the database.
+     */
+    public void rebuild() {
+        Map<String, List<Integer>> ids = new HashMap<>();
+        Map<Integer, IndexedTour> indexed = new HashMap<>();
+        for (TourRepository.IndexableTour t : tourRepository.findAllIndexable()) {
+            IndexedTour tour = new IndexedTour(new TourSummaryDto(t.getId(), t.getTitle(), t.getPrice(),
+                    t.getDuration(), t.getDifficulty(), t.getRegion(), t.getPackageCode()),
+                    tokens(t.getTitle(), t.getKeywords()));
+            indexed.put(t.getId(), tour);
+            tour.tokens().forEach(token -> ids.computeIfAbsent(token, k -> new ArrayList<>()).add(t.getId()));
+        }
+        Map<String, int[]> rebuilt = new HashMap<>(ids.size() * 2);
+        ids.forEach((token, tourIds) -> rebuilt.put(token, tourIds.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        lock.writeLock().lock();
+        try {
+            postings = rebuilt;
+            tours = indexed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} tours under {} search terms", indexed.size(), rebuilt.size());
+    }
+
+    /**
+     * Add a tour to the index, or re-index it if it is already present.
+     *
+     * @param tour a saved tour
+     */
+    public void index(Tour tour) {
+        IndexedTour indexed = new IndexedTour(new TourSummaryDto(tour.getId(), tour.getTitle(), tour.getPrice(),
+                tour.getDuration(), tour.getDifficulty(), tour.getRegion(), tour.getTourPackage().getCode()),
+                tokens(tour.getTitle(), tour.getKeywords()));
+        lock.writeLock().lock();
+        try {
+            IndexedTour previous = tours.put(tour.getId(), indexed);
+            if (previous != null) {
+                previous.tokens().forEach(token -> postings.computeIfPresent(token, (k, ids) -> remove(ids, tour.getId())));
+            }
+            indexed.tokens().forEach(token -> postings.merge(token, new int[]{tour.getId()},
+                    (ids, id) -> insert(ids, id[0])));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a tour from the index, if it is present.
+     *
+     * @param tourId the identifier of a deleted tour
+     */
+    public void remove(int tourId) {
+        lock.writeLock().lock();
+        try {
+            IndexedTour previous = tours.remove(tourId);
+            if (previous != null) {
+                previous.tokens().forEach(token -> postings.computeIfPresent(token, (k, ids) -> remove(ids, tourId)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Look up the indexed summary of a tour.
+     *
+     * @param tourId the tour identifier
+     * @return the summary, empty if the tour is not indexed
+     */
+    public Optional<TourSummaryDto> lookup(int tourId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(tours.get(tourId)).map(IndexedTour::summary);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find tours whose title or keywords contain the query terms.
+     *
+     * @param query       words to look for, no words matches every tour
+     * @param match       whether a tour needs ALL of the words or ANY of them
+     * @param difficulty  only tours of this difficulty, if not null
+     * @param region      only tours in this region, if not null
+     * @param packageCode only tours in this package, if not null
+     * @param limit       maximum number of tours to return
+     * @return the matching tours in id order
+     */
+    public List<TourSummaryDto> search(String query, Match match, Difficulty difficulty, Region region,
+                                       String packageCode, int limit) {
+        Set<String> terms = tokens(query);
+        lock.readLock().lock();
+        try {
+            int[] ids;
+            if (terms.isEmpty()) {
+                ids = tours.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            } else if (match == Match.ALL) {
+                ids = terms.stream().map(term -> postings.getOrDefault(term, NO_TOURS))
+                        .sorted(Comparator.comparingInt(p -> p.length))
+                        .reduce(TourSearchIndex::intersect).orElse(NO_TOURS);
+            } else {
+                ids = terms.stream().map(term -> postings.getOrDefault(term, NO_TOURS))
+                        .reduce(NO_TOURS, TourSearchIndex::union);
+            }
+            List<TourSummaryDto> found = new ArrayList<>(Math.min(limit, ids.length));
+            for (int i = 0; i < ids.length && found.size() < limit; i++) {
+                TourSummaryDto tour = tours.get(ids[i]).summary();
+                if ((difficulty == null || difficulty == tour.difficulty())
+                        && (region == null || region == tour.region())
+                        && (packageCode == null || packageCode.equals(tour.packageCode()))) {
+                    found.add(tour);
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> tokens(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                    if (!token.isEmpty()) {
+                        tokens.add(token);
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] insert(int[] ids, int id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return ids;
+        }
+        at = -at - 1;
+        int[] out = new int[ids.length + 1];
+        System.arraycopy(ids, 0, out, 0, at);
+        out[at] = id;
+        System.arraycopy(ids, at, out, at + 1, ids.length - at);
+        return out;
+    }
+
+    private static int[] remove(int[] ids, int id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] out = new int[ids.length - 1];
+        System.arraycopy(ids, 0, out, 0, at);
+        System.arraycopy(ids, at + 1, out, at, ids.length - at - 1);
+        return out;
+    }
+
+    private record IndexedTour(TourSummaryDto summary, Set<String> tokens) {
+    }
+}
@@ -1,42 +1,98 @@
 package com.example.explorecali.service;
 
+import com.example.explorecali.dto.TourSummaryDto;
 import com.example.explorecali.model.Difficulty;
 import com.example.explorecali.model.Region;
 import com.example.explorecali.model.Tour;
 import com.example.explorecali.model.TourPackage;
-import com.example.explorecali.repository.TourPackageRepository;
 import com.example.explorecali.repository.TourRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 
+/**
+ * Tour catalog operations. Catalog lookups return tour summaries, without the long text, and
+ * are served from the toursByDifficulty and toursByPackage caches, which every catalog write clears.
+ */
 @Service
+@Timed(value = "explorecali.service", histogram = true)
 public class TourService {
-    private TourPackageRepository tourPackageRepository;
+    public static final String TOURS_BY_DIFFICULTY = "toursByDifficulty";
+    public static final String TOURS_BY_PACKAGE = "toursByPackage";
+
+    private TourPackageService tourPackageService;
     private TourRepository tourRepository;
+    private TourSearchIndex tourSearchIndex;
 
-    public TourService(TourPackageRepository tourPackageRepository, TourRepository tourRepository) {
-        this.tourPackageRepository = tourPackageRepository;
+    public TourService(TourPackageService tourPackageService, TourRepository tourRepository,
+                       TourSearchIndex tourSearchIndex) {
+        this.tourPackageService = tourPackageService;
         this.tourRepository = tourRepository;
+        this.tourSearchIndex = tourSearchIndex;
     }
 
+    @CacheEvict(cacheNames = {TOURS_BY_DIFFICULTY, TOURS_BY_PACKAGE}, allEntries = true)
     public Tour createTour(String tourPackageName, String title,
                            String description, String blurb, Integer price, String duration,
                            String bullets, String keywords, Difficulty difficulty, Region region) {
 
-        TourPackage tourPackage = tourPackageRepository.findByName(tourPackageName)
+        TourPackage tourPackage = tourPackageService.lookupByName(tourPackageName)
                 .orElseThrow(() -> new RuntimeException("Tour Package not found for id:" + tourPackageName));
-        return tourRepository.save(new Tour(title, description, blurb,
+        Tour tour = tourRepository.save(new Tour(title, description, blurb,
                 price, duration, bullets, keywords, tourPackage, difficulty, region));
+        tourSearchIndex.index(tour);
+        return tour;
+    }
+    /**
+     * Persist many tours in one transaction so the inserts go out as JDBC batches.
+     * Callers are expected to rebuild the search index once they are done.
+     *
+     * @param tours the new tours
+     * @return the saved tours
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {TOURS_BY_DIFFICULTY, TOURS_BY_PACKAGE}, allEntries = true)
+    public List<Tour> createTours(List<Tour> tours) {
+        return tourRepository.saveAll(tours);
+    }
+
+    /**
+     * Replace the details of existing tours in one transaction.
+     *
+     * @param changes the new details keyed by the id of the tour to update
+     * @return the updated tours
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {TOURS_BY_DIFFICULTY, TOURS_BY_PACKAGE}, allEntries = true)
+    public List<Tour> updateTours(Map<Integer, Tour> changes) {
+        List<Tour> tours = tourRepository.findAllById(changes.keySet());
+        tours.forEach(tour -> tour.copyDetails(changes.get(tour.getId())));
+        return tours;
     }
-    public List<Tour> lookupByDifficulty(Difficulty difficulty) {
-        return tourRepository.findByDifficulty(difficulty);
+
+    /**
+     * Clear the catalog caches after tours were changed without this service, through the tours
+     * REST resource.
+     */
+    @CacheEvict(cacheNames = {TOURS_BY_DIFFICULTY, TOURS_BY_PACKAGE}, allEntries = true)
+    public void evictCatalog() {
+    }
+
+    @Cacheable(TOURS_BY_DIFFICULTY)
+    public List<TourSummaryDto> lookupByDifficulty(Difficulty difficulty) {
+        return List.copyOf(tourRepository.findSummariesByDifficulty(difficulty));
     }
 
-    public List<Tour> lookupByPackage(String tourPackageCode) {
-        return tourRepository.findByTourPackageCode(tourPackageCode);
+    @Cacheable(TOURS_BY_PACKAGE)
+    public List<TourSummaryDto> lookupByPackage(String tourPackageCode) {
+        return List.copyOf(tourRepository.findSummariesByPackageCode(tourPackageCode));
     }
 
     public long total() {
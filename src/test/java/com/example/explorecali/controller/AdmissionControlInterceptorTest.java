@@ -0,0 +1,110 @@
+package com.example.explorecali.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionControlInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void writesBeyondTheBurstAreRejected() {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, 10, 10, 0.1, 2, 100, Set.of());
+
+        assertThat(admit(interceptor, write("a")), is(true));
+        assertThat(admit(interceptor, write("a")), is(true));
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admit(interceptor, write("a")));
+        assertThat(rejected.getRetryAfterSeconds() > 1, is(true));
+
+        // other clients and reads have their own budgets
+        assertThat(admit(interceptor, write("b")), is(true));
+        assertThat(admit(interceptor, read()), is(true));
+        assertThat(meterRegistry.counter("explorecali.admission.rejected", "class", "write", "reason", "rate")
+                .count(), is(1.0));
+    }
+
+    @Test
+    public void concurrentWritesAreLimitedWithoutBlockingReads() throws Exception {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, 1, 1, 100, 100, 100, Set.of());
+        MockHttpServletRequest first = write("a");
+        interceptor.preHandle(first, response, null);
+
+        assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(write("a"), response, null));
+        MockHttpServletRequest read = read();
+        assertThat(interceptor.preHandle(read, response, null), is(true));
+
+        // a permit is released once, and a re-dispatch of the same request does not take another
+        assertThat(interceptor.preHandle(first, response, null), is(true));
+        interceptor.afterCompletion(first, response, null, null);
+        interceptor.afterCompletion(first, response, null, null);
+        interceptor.afterCompletion(read, response, null, null);
+        assertThat(interceptor.preHandle(write("a"), response, null), is(true));
+        assertThrows(AdmissionRejectedException.class, () -> interceptor.preHandle(write("a"), response, null));
+    }
+
+    @Test
+    public void clientIdIsOnlyTrustedFromProxies() {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, 10, 10, 0.1, 1,
+                100, Set.of("10.0.0.1"));
+
+        // a direct client can't get a fresh burst by changing its X-Client-Id or X-Forwarded-For
+        assertThat(admit(interceptor, write("192.0.2.7", "a")), is(true));
+        assertThrows(AdmissionRejectedException.class, () -> admit(interceptor, write("192.0.2.7", "b")));
+        assertThrows(AdmissionRejectedException.class,
+                () -> admit(interceptor, forwarded(write("192.0.2.7", null), "198.51.100.1")));
+
+        // behind the trusted proxy, the header and then the forwarded address tell clients apart
+        assertThat(admit(interceptor, write("10.0.0.1", "a")), is(true));
+        assertThat(admit(interceptor, write("10.0.0.1", "b")), is(true));
+        assertThrows(AdmissionRejectedException.class, () -> admit(interceptor, write("10.0.0.1", "b")));
+        assertThat(admit(interceptor, forwarded(write("10.0.0.1", null), "198.51.100.1")), is(true));
+        assertThat(admit(interceptor, forwarded(write("10.0.0.1", null), "198.51.100.2")), is(true));
+    }
+
+    private boolean admit(AdmissionControlInterceptor interceptor, HttpServletRequest request) {
+        boolean admitted = interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return admitted;
+    }
+
+    private static MockHttpServletRequest write(String address) {
+        return write(address, null);
+    }
+
+    private static MockHttpServletRequest write(String address, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/tours/1/ratings");
+        request.setRemoteAddr(address);
+        if (clientId != null) {
+            request.addHeader(AdmissionControlInterceptor.CLIENT_ID_HEADER, clientId);
+        }
+        return request;
+    }
+
+    /**
+     * The request as the forwarded header handling hands it on, reporting the forwarded client address.
+     */
+    private static HttpServletRequest forwarded(MockHttpServletRequest request, String clientAddress) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getRemoteAddr() {
+                return clientAddress;
+            }
+        };
+    }
+
+    private static MockHttpServletRequest read() {
+        return new MockHttpServletRequest("GET", "/tours/1/ratings");
+    }
+}
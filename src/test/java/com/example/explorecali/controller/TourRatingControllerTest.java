@@ -3,19 +3,30 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Map; // Added for getAverage test
+import java.util.function.Consumer;
 
+import com.example.explorecali.dto.KeysetPage;
 import com.example.explorecali.dto.RatingDto;
 import com.example.explorecali.model.Tour; // Removed if not directly used in controller for clarity
 import com.example.explorecali.model.TourRating; // Removed if not directly used in controller for clarity
 import com.example.explorecali.service.TourRatingService;
+import com.example.explorecali.service.TourRatingVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 // import org.mockito.Mock; // REMOVE THIS IMPORT FOR TourRatingService
@@ -24,7 +35,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean; // <--- ADD THIS IMPORT
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 
@@ -41,6 +58,9 @@ public class TourRatingControllerTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private TourRatingVersions tourRatingVersions;
+
     // CHANGE FROM @Mock to @MockBean
     @MockBean
     private TourRatingService serviceMock;
@@ -83,7 +103,7 @@ public class TourRatingControllerTest {
     @Test
     void testGetAllRatingsForTour() {
         // Stub the service method to return a list of mock TourRating objects
-        when(serviceMock.lookupRatings(anyInt())).thenReturn(List.of(tourRatingMock));
+        when(serviceMock.lookupRatings(anyInt())).thenReturn(List.of(ratingDto));
         ResponseEntity<List<RatingDto>> res = restTemplate.exchange(TOUR_RATINGS_URL, org.springframework.http.HttpMethod.GET, null, new org.springframework.core.ParameterizedTypeReference<List<RatingDto>>() {});
         // If the controller returns List<RatingDto>, you should use ParameterizedTypeReference
         // Or change the return type of restTemplate.getForEntity to a raw String and then assert on JSON content.
@@ -92,6 +112,99 @@ public class TourRatingControllerTest {
         verify(serviceMock).lookupRatings(anyInt());
     }
 
+    @Test
+    void testGetAllRatingsForTourNotModified() {
+        when(serviceMock.lookupRatings(TOUR_ID)).thenReturn(List.of(ratingDto));
+        String etag = restTemplate.getForEntity(TOUR_RATINGS_URL, String.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+
+        ResponseEntity<String> res = restTemplate.exchange(TOUR_RATINGS_URL, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(res.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        verify(serviceMock, times(1)).lookupRatings(TOUR_ID);
+
+        // a committed write moves the version on, so the old tag no longer matches
+        tourRatingVersions.onRatingsChanged(new TourRatingService.RatingsChanged(TOUR_ID));
+        res = restTemplate.exchange(TOUR_RATINGS_URL, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(res.getStatusCode(), is(HttpStatus.OK));
+        verify(serviceMock, times(2)).lookupRatings(TOUR_ID);
+    }
+
+    @Test
+    void testNotModifiedWithoutDatabaseRead() {
+        // tour 1 comes from the import, so the search index knows it
+        String url = "/tours/1/ratings";
+        when(serviceMock.lookupRatings(1)).thenReturn(List.of(ratingDto));
+        when(serviceMock.getAverageScore(1)).thenReturn(3.0);
+        for (String poll : List.of(url, url + "/average")) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfNoneMatch(restTemplate.getForEntity(poll, String.class).getHeaders().getETag());
+            ResponseEntity<String> res = restTemplate.exchange(poll, HttpMethod.GET, new HttpEntity<>(headers),
+                    String.class);
+            assertThat(res.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+        }
+        verify(serviceMock, never()).verifyTourExists(1);
+    }
+
+    @Test
+    void testGetAllRatingsForTourInBinaryEncodings() throws IOException {
+        when(serviceMock.lookupRatings(TOUR_ID)).thenReturn(List.of(ratingDto));
+        Map<MediaType, ObjectMapper> decoders = Map.of(
+                MediaType.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()),
+                BinaryEncodingConfig.APPLICATION_SMILE, new ObjectMapper(new SmileFactory()));
+
+        for (Map.Entry<MediaType, ObjectMapper> decoder : decoders.entrySet()) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(List.of(decoder.getKey()));
+            ResponseEntity<byte[]> res = restTemplate.exchange(TOUR_RATINGS_URL, HttpMethod.GET,
+                    new HttpEntity<>(headers), byte[].class);
+
+            assertThat(res.getStatusCode(), is(HttpStatus.OK));
+            assertThat(res.getHeaders().getContentType(), is(decoder.getKey()));
+            RatingDto[] ratings = decoder.getValue().readValue(res.getBody(), RatingDto[].class);
+            assertThat(List.of(ratings), is(List.of(ratingDto)));
+        }
+    }
+
+    @Test
+    void testGetRatingsPage() {
+        when(serviceMock.lookupRatings(TOUR_ID, "abc", 10))
+                .thenReturn(new KeysetPage<>(List.of(ratingDto), "def"));
+        ResponseEntity<KeysetPage<RatingDto>> res = restTemplate.exchange(TOUR_RATINGS_URL + "/page?after=abc&size=10",
+                HttpMethod.GET, null, new ParameterizedTypeReference<KeysetPage<RatingDto>>() {});
+
+        assertThat(res.getStatusCode(), is(HttpStatus.OK));
+        assertThat(res.getBody().content(), is(List.of(ratingDto)));
+        assertThat(res.getBody().next(), is("def"));
+    }
+
+    @Test
+    void testGetRatingsPageTooLarge() {
+        ResponseEntity<String> res = restTemplate.getForEntity(TOUR_RATINGS_URL + "/page?size=100000", String.class);
+
+        assertThat(res.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void testStreamAllRatingsForTour() {
+        doAnswer(invocation -> {
+            Consumer<RatingDto> action = invocation.getArgument(1);
+            action.accept(ratingDto);
+            action.accept(new RatingDto(5, null, CUSTOMER_ID + 1));
+            return null;
+        }).when(serviceMock).streamRatings(anyInt(), any());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        ResponseEntity<String> res = restTemplate.exchange(TOUR_RATINGS_URL, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(res.getStatusCode(), is(HttpStatus.OK));
+        assertThat(res.getBody(), is("{\"score\":3,\"comment\":\"comment\",\"customerId\":1000}\n"
+                + "{\"score\":5,\"comment\":null,\"customerId\":1001}\n"));
+        verify(serviceMock).verifyTourExists(TOUR_ID);
+    }
+
     @Test
     void testGetAverage() {
         // Stub the service method to return a specific average score
@@ -148,6 +261,31 @@ public class TourRatingControllerTest {
         assertThat(res.getStatusCode(), is(HttpStatus.NOT_FOUND));
     }
 
+    @Test
+    public void test404IgnoresIfNoneMatch() {
+        doThrow(new NoSuchElementException()).when(serviceMock).verifyTourExists(TOUR_ID);
+
+        for (String representation : List.of("ratings", "average")) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfNoneMatch(tourRatingVersions.etag(TOUR_ID, representation));
+            String url = representation.equals("ratings") ? TOUR_RATINGS_URL : TOUR_RATINGS_URL + "/average";
+            ResponseEntity<String> res = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                    String.class);
+
+            assertThat(res.getStatusCode(), is(HttpStatus.NOT_FOUND));
+            assertThat(res.getHeaders().getETag(), is((String) null));
+        }
+    }
+
+    @Test
+    public void test409() {
+        when(serviceMock.createNew(anyInt(), anyInt(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("uk_tour_rating_customer_id_tour_id"));
+        ResponseEntity<String> res = restTemplate.postForEntity(TOUR_RATINGS_URL, ratingDto, String.class);
+
+        assertThat(res.getStatusCode(), is(HttpStatus.CONFLICT));
+    }
+
     @Test
     public void test400() {
         // Stub the service to throw ConstraintViolationException
@@ -0,0 +1,105 @@
+package com.example.explorecali.controller;
+
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.repository.TourRepository;
+import com.example.explorecali.service.TourService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class TourRestResourceTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Test
+    void testDeleteWithAcceptHeader() {
+        Tour tour = createTour("Rest Delete Tour");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.ALL));
+
+        ResponseEntity<String> res = restTemplate.exchange("/tours/" + tour.getId(), HttpMethod.DELETE,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(res.getStatusCode(), is(HttpStatus.NO_CONTENT));
+        assertThat(tourRepository.existsById(tour.getId()), is(false));
+    }
+
+    @Test
+    void testPatchIsStored() {
+        Tour tour = createTour("Rest Patch Tour");
+
+        restTemplate.patchForObject("/tours/" + tour.getId(), Map.of("title", "Patched Tour", "price", 150),
+                String.class);
+
+        Tour stored = tourRepository.findById(tour.getId()).orElseThrow();
+        assertThat(stored.getTitle(), is("Patched Tour"));
+        assertThat(stored.getPrice(), is(150));
+        tourRepository.delete(stored);
+    }
+
+    @Test
+    void testPatchAndDeleteKeepSearchCurrent() {
+        Tour tour = createTour("Rest Search Tour");
+
+        restTemplate.patchForObject("/tours/" + tour.getId(), Map.of("title", "Renamed Zebra Trek"), String.class);
+        assertThat(search("zebra"), is(List.of(tour.getId())));
+        assertThat(search("search"), is(List.of()));
+
+        restTemplate.delete("/tours/" + tour.getId());
+        assertThat(search("zebra"), is(List.of()));
+    }
+
+    @Test
+    void testPatchAndDeleteClearCatalogCaches() {
+        Tour tour = createTour("Rest Cache Tour");
+        assertThat(titles(), hasItem("Rest Cache Tour"));
+
+        restTemplate.patchForObject("/tours/" + tour.getId(), Map.of("title", "Renamed Cache Tour"), String.class);
+        assertThat(titles(), hasItem("Renamed Cache Tour"));
+
+        restTemplate.delete("/tours/" + tour.getId());
+        assertThat(titles(), not(hasItem("Renamed Cache Tour")));
+    }
+
+    private List<String> titles() {
+        return tourService.lookupByDifficulty(Difficulty.Easy).stream().map(TourSummaryDto::title).toList();
+    }
+
+    private List<Integer> search(String query) {
+        TourSummaryDto[] found = restTemplate.getForObject("/search/tours?q={q}", TourSummaryDto[].class, query);
+        return Stream.of(found).map(TourSummaryDto::id).toList();
+    }
+
+    private Tour createTour(String title) {
+        return tourService.createTour("Backpack Cal", title, "description", "blurb", 100, "1 day",
+                "bullets", "keywords", Difficulty.Easy, Region.Varies);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.explorecali.repository;
+
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Tour;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+@SpringBootTest
+@Transactional
+public class TourRepositoryTest {
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Test
+    public void longTextLoadsOnFirstAccess() {
+        Tour tour = tourRepository.findByDifficulty(Difficulty.Easy).get(0);
+
+        assertThat(Hibernate.isPropertyInitialized(tour, "description"), is(false));
+        assertThat(tour.getDescription(), notNullValue());
+        assertThat(Hibernate.isPropertyInitialized(tour, "blurb"), is(true));
+        assertThat(Hibernate.isPropertyInitialized(tour, "bullets"), is(true));
+    }
+
+    @Test
+    public void summariesMatchTheTours() {
+        List<Tour> tours = tourRepository.findByTourPackageCode("BC");
+        List<TourSummaryDto> summaries = tourRepository.findSummariesByPackageCode("BC");
+
+        assertThat(summaries.stream().map(TourSummaryDto::id).toList(),
+                is(tours.stream().map(Tour::getId).toList()));
+        assertThat(summaries, not(List.of()));
+        assertThat(summaries.stream().map(TourSummaryDto::packageCode).toList(), everyItem(is("BC")));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.explorecali.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RatingExportServiceTest {
+
+    private EmbeddedDatabase database;
+    private RatingExportService service;
+
+    @BeforeEach
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("create table tour_rating (id int primary key, tour_id int, customer_id int, " +
+                "score int not null, comment varchar(255))");
+        jdbc.update("insert into tour_rating values (1, 7, 100, 5, 'Great, \"really\"')");
+        jdbc.update("insert into tour_rating values (2, 7, null, 3, null)");
+        service = new RatingExportService(database, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void exportCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.export(RatingExportService.Format.CSV, false, Channels.newChannel(out)), is(2L));
+        assertThat(out.toString(StandardCharsets.UTF_8), is("id,tour_id,customer_id,score,comment\n"
+                + "1,7,100,5,\"Great, \"\"really\"\"\"\n"
+                + "2,7,,3,\n"));
+    }
+
+    @Test
+    public void exportBinaryGzip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.export(RatingExportService.Format.BINARY, true, Channels.newChannel(out)), is(2L));
+        DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertThat(in.readNBytes(4), is(RatingExportService.BINARY_MAGIC));
+        assertThat(in.readInt(), is(2));
+        assertThat(new int[]{in.readInt(), in.readInt()}, is(new int[]{1, 2}));
+        assertThat(new int[]{in.readInt(), in.readInt()}, is(new int[]{7, 7}));
+        assertThat(new int[]{in.readInt(), in.readInt()}, is(new int[]{100, -1}));
+        assertThat(in.readNBytes(2), is(new byte[]{5, 3}));
+        assertThat(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8), is("Great, \"really\""));
+        assertThat(in.readInt(), is(-1));
+        assertThat(in.readInt(), is(0));
+        assertThat(in.read(), is(-1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.RatingDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RatingIngestionQueueTest {
+
+    private static final int TOUR_ID = 1;
+
+    @Mock
+    private TourRatingService tourRatingServiceMock;
+
+    @Captor
+    private ArgumentCaptor<List<RatingIngestionQueue.PendingRating>> batchCaptor;
+
+    @Test
+    public void stopFlushesQueuedRatings() {
+        RatingIngestionQueue queue = new RatingIngestionQueue(tourRatingServiceMock, new SimpleMeterRegistry(), true, 100, 10, 1000);
+        queue.start();
+        for (int customer = 0; customer < 25; customer++) {
+            queue.submit(TOUR_ID, new RatingDto(5, null, customer));
+        }
+
+        queue.stop();
+
+        // verify every rating was written, in group commits of at most the batch size
+        verify(tourRatingServiceMock, atLeastOnce()).createAll(batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues().stream().mapToInt(List::size).sum(), is(25));
+        assertThat(batchCaptor.getAllValues().stream().allMatch(batch -> batch.size() <= 10), is(true));
+        assertThat(queue.size(), is(0));
+    }
+
+    @Test
+    public void failedGroupCommitFallsBackToSingleRatings() {
+        when(tourRatingServiceMock.createAll(anyList())).thenThrow(new IllegalStateException("duplicate"));
+        RatingIngestionQueue queue = new RatingIngestionQueue(tourRatingServiceMock, new SimpleMeterRegistry(), true, 100, 10, 1000);
+        queue.start();
+        queue.submit(TOUR_ID, new RatingDto(4, "good", 7));
+
+        queue.stop();
+
+        verify(tourRatingServiceMock).createNew(TOUR_ID, 7, 4, "good");
+    }
+
+    @Test
+    public void fullQueueRejects() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tourRatingServiceMock.createAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of();
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RatingIngestionQueue queue = new RatingIngestionQueue(tourRatingServiceMock, meterRegistry, true, 1, 10, 1);
+        queue.start();
+        try {
+            // the writer takes the first rating and blocks on it, the second one fills the queue
+            queue.submit(TOUR_ID, new RatingDto(5, null, 1));
+            assertThat(writing.await(5, TimeUnit.SECONDS), is(true));
+            queue.submit(TOUR_ID, new RatingDto(5, null, 2));
+
+            assertThrows(RejectedExecutionException.class, () -> queue.submit(TOUR_ID, new RatingDto(5, null, 3)));
+            assertThat(meterRegistry.counter("explorecali.ratings.queue.rejected").count(), is(1.0));
+        } finally {
+            release.countDown();
+            queue.stop();
+        }
+        assertThat(queue.size(), is(0));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.model.TourPackage;
+import com.example.explorecali.repository.TourRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TourImportServiceTest {
+
+    private static final String TOURS = """
+            [{"packageName": "Backpack Cal", "title": "Big Sur Retreat", "description": "d", "blurb": "b",
+              "price": 750, "length": "3 days", "bullets": "x", "keywords": "Hiking, Big Sur",
+              "difficulty": "Medium", "region": "Central Coast"},
+             {"packageName": "Backpack Cal", "title": "In the Steps of John Muir", "description": "d", "blurb": "b",
+              "price": 600, "length": "3 days", "bullets": "x", "keywords": "Hiking, Yosemite",
+              "difficulty": "Difficult", "region": "Northern California"}]
+            """;
+
+    @Mock
+    private TourPackageService tourPackageServiceMock;
+    @Mock
+    private TourRepository tourRepositoryMock;
+    @Mock
+    private TourService tourServiceMock;
+    @Mock
+    private TourSearchIndex tourSearchIndexMock;
+
+    @Captor
+    private ArgumentCaptor<List<Tour>> toursCaptor;
+    @Captor
+    private ArgumentCaptor<Map<Integer, Tour>> updatesCaptor;
+
+    @TempDir
+    private Path tempDir;
+
+    private TourImportService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TourImportService(tourPackageServiceMock, tourRepositoryMock, tourServiceMock,
+                tourSearchIndexMock, new ObjectMapper());
+    }
+
+    @Test
+    public void importTours() throws IOException {
+        TourPackage backpack = new TourPackage("BC", "Backpack Cal");
+        when(tourPackageServiceMock.lookupByName("Backpack Cal")).thenReturn(Optional.of(backpack));
+        when(tourServiceMock.createTours(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TourImportService.ImportResult result = service.importTours(write(TOURS));
+
+        // verify both tours are saved together with the package resolved from the single lookup
+        verify(tourServiceMock).createTours(toursCaptor.capture());
+        assertThat(result.inserted(), is(2));
+        Tour second = toursCaptor.getValue().get(1);
+        assertThat(second.getFingerprint().length(), is(64));
+        verify(tourSearchIndexMock).rebuild();
+        assertThat(second.getTitle(), is("In the Steps of John Muir"));
+        assertThat(second.getTourPackage(), is(backpack));
+        assertThat(second.getDifficulty(), is(Difficulty.Difficult));
+        assertThat(second.getRegion(), is(Region.Northern_California));
+    }
+
+    @Test
+    public void importToursOnlyWritesChanges() throws IOException {
+        String file = write(TOURS);
+        TourPackage backpack = new TourPackage("BC", "Backpack Cal");
+        when(tourPackageServiceMock.lookupByName("Backpack Cal")).thenReturn(Optional.of(backpack));
+        when(tourServiceMock.createTours(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        service.importTours(file);
+        verify(tourServiceMock).createTours(toursCaptor.capture());
+        Tour first = toursCaptor.getValue().get(0);
+        when(tourRepositoryMock.findAllFingerprints()).thenReturn(List.of(
+                fingerprint(1, first.getTitle(), first.getFingerprint()),
+                fingerprint(2, "In the Steps of John Muir", "outdated")));
+        when(tourServiceMock.updateTours(anyMap())).thenAnswer(invocation -> List.copyOf(
+                invocation.<Map<Integer, Tour>>getArgument(0).values()));
+
+        TourImportService.ImportResult result = service.importTours(file);
+
+        // verify the unchanged tour is skipped and only the changed one is updated, by id
+        verify(tourServiceMock).updateTours(updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue().keySet(), is(Set.of(2)));
+        assertThat(result.inserted(), is(0));
+        assertThat(result.updated(), is(1));
+        assertThat(result.unchanged(), is(1));
+    }
+
+    @Test
+    public void importToursUnknownPackage() throws IOException {
+        when(tourPackageServiceMock.lookupByName("Backpack Cal")).thenReturn(Optional.empty());
+        String file = write(TOURS);
+
+        assertThrows(RuntimeException.class, () -> service.importTours(file));
+    }
+
+    private static TourRepository.TourFingerprint fingerprint(int id, String title, String fingerprint) {
+        return new TourRepository.TourFingerprint() {
+            public Integer getId() { return id; }
+            public String getPackageCode() { return "BC"; }
+            public String getTitle() { return title; }
+            public String getFingerprint() { return fingerprint; }
+        };
+    }
+
+    private String write(String json) throws IOException {
+        Path file = tempDir.resolve("tours.json");
+        Files.writeString(file, json);
+        return file.toString();
+    }
+}
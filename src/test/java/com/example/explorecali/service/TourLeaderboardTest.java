@@ -0,0 +1,97 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.TopRatedTourDto;
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.TourRatingAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TourLeaderboardTest {
+
+    @Mock
+    private TourRatingAggregateService aggregateServiceMock;
+    @Mock
+    private TourSearchIndex tourSearchIndexMock;
+
+    @InjectMocks
+    private TourLeaderboard leaderboard;
+
+    @BeforeEach
+    public void setUp() {
+        when(aggregateServiceMock.lookupAll()).thenReturn(List.of(
+                aggregate(1, 4, 4), aggregate(2, 5, 1), aggregate(3, 4, 9), aggregate(4, 3, 2),
+                new TourRatingAggregate(5)));
+        summary(1, Region.Central_Coast, Difficulty.Easy);
+        summary(2, Region.Central_Coast, Difficulty.Easy);
+        summary(3, Region.Northern_California, Difficulty.Difficult);
+        summary(4, Region.Central_Coast, Difficulty.Medium);
+        leaderboard.rebuild();
+    }
+
+    @Test
+    public void topOrdersByAverageThenRatings() {
+        assertThat(ids(leaderboard.top(10, 1, null, null)), is(List.of(2, 3, 1, 4)));
+        assertThat(ids(leaderboard.top(2, 1, null, null)), is(List.of(2, 3)));
+    }
+
+    @Test
+    public void topWithFilters() {
+        assertThat(ids(leaderboard.top(10, 2, null, null)), is(List.of(3, 1, 4)));
+        assertThat(ids(leaderboard.top(10, 1, Region.Central_Coast, null)), is(List.of(2, 1, 4)));
+        assertThat(ids(leaderboard.top(10, 1, Region.Central_Coast, Difficulty.Medium)), is(List.of(4)));
+    }
+
+    @Test
+    public void onChangedReranksTour() {
+        leaderboard.onChanged(new TourRatingAggregateService.Changed(4, 3, 15, 3));
+        assertThat(ids(leaderboard.top(10, 1, null, null)), is(List.of(4, 2, 3, 1)));
+
+        leaderboard.onChanged(new TourRatingAggregateService.Changed(4, 0, 0, 4));
+        assertThat(ids(leaderboard.top(10, 1, null, null)), is(List.of(2, 3, 1)));
+    }
+
+    @Test
+    public void onChangedIgnoresOlderTotals() {
+        // two commits for tour 4 whose events arrive in the reverse order of the commits
+        leaderboard.onChanged(new TourRatingAggregateService.Changed(4, 4, 20, 4));
+        leaderboard.onChanged(new TourRatingAggregateService.Changed(4, 3, 15, 3));
+
+        List<TopRatedTourDto> top = leaderboard.top(10, 1, null, null);
+        assertThat(ids(top), is(List.of(4, 2, 3, 1)));
+        assertThat(top.get(0).ratings(), is(4L));
+
+        // a rebuild that reads totals older than the latest event leaves the ranking alone
+        when(aggregateServiceMock.lookupAll()).thenReturn(List.of(aggregate(4, 3, 2)));
+        leaderboard.rebuild();
+        assertThat(leaderboard.top(10, 1, null, null).get(0).ratings(), is(4L));
+    }
+
+    private void summary(int id, Region region, Difficulty difficulty) {
+        when(tourSearchIndexMock.lookup(id)).thenReturn(Optional.of(
+                new TourSummaryDto(id, "Tour " + id, 100, "1 day", difficulty, region, "BC")));
+    }
+
+    private static TourRatingAggregate aggregate(int tourId, int score, long ratings) {
+        TourRatingAggregate aggregate = new TourRatingAggregate(tourId);
+        aggregate.add(score, ratings);
+        return aggregate;
+    }
+
+    private static List<Integer> ids(List<TopRatedTourDto> tours) {
+        return tours.stream().map(t -> t.tour().id()).toList();
+    }
+}
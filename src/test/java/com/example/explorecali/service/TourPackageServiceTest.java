@@ -0,0 +1,76 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.TourPackage;
+import com.example.explorecali.repository.TourPackageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TourPackageServiceTest {
+
+    private static final TourPackage BACKPACK = new TourPackage("BC", "Backpack Cal");
+
+    @Mock
+    private TourPackageRepository tourPackageRepositoryMock;
+
+    @InjectMocks
+    private TourPackageService service;
+
+    @Test
+    public void createExistingPackageDoesNotSave() {
+        when(tourPackageRepositoryMock.findAll()).thenReturn(List.of(BACKPACK));
+
+        assertThat(service.createTourPackage("BC", "Backpack Cal"), is(BACKPACK));
+
+        verify(tourPackageRepositoryMock, never()).save(any(TourPackage.class));
+    }
+
+    @Test
+    public void createNewPackageIsRegistered() {
+        when(tourPackageRepositoryMock.findAll()).thenReturn(List.of());
+        when(tourPackageRepositoryMock.save(any(TourPackage.class))).thenReturn(BACKPACK);
+
+        service.createTourPackage("BC", "Backpack Cal");
+
+        assertThat(service.lookupByCode("BC"), is(Optional.of(BACKPACK)));
+        assertThat(service.lookupByName("Backpack Cal"), is(Optional.of(BACKPACK)));
+    }
+
+    @Test
+    public void lookupsLoadOnce() {
+        when(tourPackageRepositoryMock.findAll()).thenReturn(List.of(BACKPACK));
+
+        service.lookupByName("Backpack Cal");
+        service.lookupByCode("BC");
+        service.lookupAll();
+
+        verify(tourPackageRepositoryMock, times(1)).findAll();
+    }
+
+    @Test
+    public void renameAndDelete() {
+        when(tourPackageRepositoryMock.findAll()).thenReturn(List.of(BACKPACK));
+        TourPackage renamed = new TourPackage("BC", "Backpack California");
+
+        service.register(renamed);
+        assertThat(service.lookupByName("Backpack Cal"), is(Optional.empty()));
+        assertThat(service.lookupByName("Backpack California"), is(Optional.of(renamed)));
+
+        service.unregister(renamed);
+        assertThat(service.lookupByCode("BC"), is(Optional.empty()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.explorecali.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+public class TourRatingAggregateRebuildTest {
+
+    private static final int TOUR_ID = 2;
+
+    @Autowired
+    private TourRatingService tourRatingService;
+
+    @Autowired
+    private TourRatingAggregateService aggregateService;
+
+    @Test
+    public void ratingsWrittenDuringRebuildsAreKept() throws Exception {
+        List<Integer> customers = IntStream.range(90_000, 90_200).boxed().toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            tasks.add(executor.submit(() -> IntStream.range(0, 20).forEach(i -> aggregateService.rebuild())));
+            customers.forEach(customer -> tasks.add(executor.submit(
+                    () -> tourRatingService.createNew(TOUR_ID, customer, 4, null))));
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+
+            assertThat(aggregateService.verify().stream()
+                    .filter(drift -> drift.tourId() == TOUR_ID).toList(), is(List.of()));
+        } finally {
+            executor.shutdown();
+            customers.forEach(customer -> tourRatingService.delete(TOUR_ID, customer));
+        }
+    }
+}
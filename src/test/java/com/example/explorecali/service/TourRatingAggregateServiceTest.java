@@ -0,0 +1,119 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.TourRatingAggregate;
+import com.example.explorecali.repository.TourRatingAggregateRepository;
+import com.example.explorecali.repository.TourRatingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TourRatingAggregateServiceTest {
+
+    private static final int TOUR_ID = 1;
+
+    @Mock
+    private TourRatingAggregateRepository aggregateRepositoryMock;
+    @Mock
+    private TourRatingRepository tourRatingRepositoryMock;
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
+    @InjectMocks
+    private TourRatingAggregateService service;
+
+    @Test
+    public void recordNewCreatesAggregate() {
+        TourRatingAggregate created = new TourRatingAggregate(TOUR_ID);
+        when(aggregateRepositoryMock.findForUpdate(TOUR_ID)).thenReturn(Optional.empty());
+        when(aggregateRepositoryMock.save(any(TourRatingAggregate.class))).thenReturn(created);
+
+        service.recordNew(TOUR_ID, 4, 3);
+
+        assertThat(created.getCount(), is(3L));
+        assertThat(created.getSum(), is(12L));
+        assertThat(created.getHistogram(), is(Map.of(4, 3L)));
+        verify(aggregateRepositoryMock).lockTour(TOUR_ID);
+        verify(eventPublisherMock).publishEvent(new TourRatingAggregateService.Changed(TOUR_ID, 3, 12, 1));
+    }
+
+    @Test
+    public void recordChangedAndRemoved() {
+        TourRatingAggregate aggregate = new TourRatingAggregate(TOUR_ID);
+        aggregate.add(2, 1);
+        aggregate.add(5, 1);
+        when(aggregateRepositoryMock.findForUpdate(TOUR_ID)).thenReturn(Optional.of(aggregate));
+
+        service.recordChanged(TOUR_ID, 2, 3);
+        service.recordRemoved(TOUR_ID, 5);
+
+        assertThat(aggregate.getCount(), is(1L));
+        assertThat(aggregate.getAverage(), is(3.0));
+        assertThat(aggregate.getHistogram(), is(Map.of(3, 1L)));
+        verify(eventPublisherMock).publishEvent(new TourRatingAggregateService.Changed(TOUR_ID, 2, 8, 4));
+        verify(eventPublisherMock).publishEvent(new TourRatingAggregateService.Changed(TOUR_ID, 1, 3, 5));
+    }
+
+    @Test
+    public void verifyReportsDrift() {
+        TourRatingAggregate stored = new TourRatingAggregate(TOUR_ID);
+        stored.add(5, 2);
+        when(aggregateRepositoryMock.findAll()).thenReturn(List.of(stored));
+        when(tourRatingRepositoryMock.countByTourAndScore()).thenReturn(List.of(scoreCount(TOUR_ID, 5, 1)));
+
+        List<TourRatingAggregateService.Drift> drifts = service.verify();
+
+        assertThat(drifts, is(List.of(new TourRatingAggregateService.Drift(TOUR_ID, 2, 1, 10, 5))));
+    }
+
+    @Test
+    public void rebuild() {
+        TourRatingAggregate stored = new TourRatingAggregate(TOUR_ID);
+        stored.add(5, 2);
+        TourRatingAggregate created = new TourRatingAggregate(TOUR_ID + 1);
+        when(aggregateRepositoryMock.findAllTourIds()).thenReturn(List.of(TOUR_ID));
+        when(aggregateRepositoryMock.findForUpdate(TOUR_ID)).thenReturn(Optional.of(stored));
+        when(aggregateRepositoryMock.findForUpdate(TOUR_ID + 1)).thenReturn(Optional.empty());
+        when(aggregateRepositoryMock.save(any(TourRatingAggregate.class))).thenReturn(created);
+        // a rating for the first tour commits between the two counts
+        when(tourRatingRepositoryMock.countByTourAndScore()).thenReturn(
+                List.of(scoreCount(TOUR_ID, 3, 4), scoreCount(TOUR_ID + 1, 2, 1)),
+                List.of(scoreCount(TOUR_ID, 3, 5), scoreCount(TOUR_ID + 1, 2, 1)));
+
+        assertThat(service.rebuild(), is(2));
+
+        // both aggregates are locked before the ratings they are rebuilt from are counted
+        InOrder inOrder = inOrder(aggregateRepositoryMock, tourRatingRepositoryMock);
+        inOrder.verify(aggregateRepositoryMock).findForUpdate(TOUR_ID);
+        inOrder.verify(aggregateRepositoryMock).lockTour(TOUR_ID + 1);
+        inOrder.verify(tourRatingRepositoryMock).countByTourAndScore();
+        assertThat(stored.getCount(), is(5L));
+        assertThat(stored.getSum(), is(15L));
+        assertThat(stored.getHistogram(), is(Map.of(3, 5L)));
+        assertThat(created.getHistogram(), is(Map.of(2, 1L)));
+        verify(eventPublisherMock).publishEvent(new TourRatingAggregateService.Rebuilt());
+    }
+
+    private static TourRatingRepository.ScoreCount scoreCount(int tourId, int score, long ratings) {
+        return new TourRatingRepository.ScoreCount() {
+            public Integer getTourId() { return tourId; }
+            public Integer getScore() { return score; }
+            public Long getRatings() { return ratings; }
+        };
+    }
+}
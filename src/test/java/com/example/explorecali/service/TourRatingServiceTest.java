@@ -1,7 +1,13 @@
 package com.example.explorecali.service;
 
+import com.example.explorecali.dto.BatchRatingReport;
+import com.example.explorecali.dto.CustomerRatingDto;
+import com.example.explorecali.dto.KeysetPage;
+import com.example.explorecali.dto.RatingDto;
+import com.example.explorecali.dto.TourAverageDto;
 import com.example.explorecali.model.Tour;
 import com.example.explorecali.model.TourRating;
+import com.example.explorecali.model.TourRatingAggregate;
 import com.example.explorecali.repository.TourRatingRepository;
 import com.example.explorecali.repository.TourRepository;
 import static org.hamcrest.CoreMatchers.is;
@@ -15,15 +21,23 @@ import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +51,12 @@ public class TourRatingServiceTest {
     private TourRepository tourRepositoryMock;
     @Mock
     private TourRatingRepository tourRatingRepositoryMock;
+    @Mock
+    private TourRatingAggregateService aggregateServiceMock;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
 
     @InjectMocks
     private TourRatingService service;
@@ -47,8 +67,8 @@ public class TourRatingServiceTest {
     @Mock
     private TourRating tourRatingMock;
 
-    @Mock
-    private TourRating tourRatingMock2;
+    @Captor
+    private ArgumentCaptor<List<TourRating>> ratingsCaptor;
 
 
     /**************************************************************************************
@@ -58,44 +78,96 @@ public class TourRatingServiceTest {
      **************************************************************************************/
     @Test
     public void lookupRatingById() {
-        when(tourRatingRepositoryMock.findById(TOUR_RATING_ID)).thenReturn(Optional.of(tourRatingMock));
+        RatingDto rating = new RatingDto(5, "great", CUSTOMER_ID);
+        when(tourRatingRepositoryMock.findRatingById(TOUR_RATING_ID)).thenReturn(Optional.of(rating));
 
         // invoke and verify lookupRatingById
-        assertThat(service.lookupRatingById(TOUR_RATING_ID).get(), is(tourRatingMock));
+        assertThat(service.lookupRatingById(TOUR_RATING_ID).get(), is(rating));
     }
 
     @Test
     public void lookupAll() {
-        when(tourRatingRepositoryMock.findAll()).thenReturn(Arrays.asList(tourRatingMock));
+        RatingDto rating = new RatingDto(5, "great", CUSTOMER_ID);
+        when(tourRatingRepositoryMock.findAllRatings()).thenReturn(Arrays.asList(rating));
 
         // invoke and verify lookupAll
-        assertThat(service.lookupAll().get(0), is(tourRatingMock));
+        assertThat(service.lookupAll().get(0), is(rating));
     }
 
     @Test
     public void getAverageScore() {
-        when(tourRepositoryMock.findById(TOUR_ID)).thenReturn(Optional.of(tourMock));
-        when(tourMock.getId()).thenReturn(TOUR_ID);
-        when(tourRatingRepositoryMock.findByTourId(TOUR_ID)).thenReturn(Arrays.asList(tourRatingMock));
-        when(tourRatingMock.getScore()).thenReturn(10);
+        TourRatingAggregate aggregate = new TourRatingAggregate(TOUR_ID);
+        aggregate.add(10, 1);
+        when(aggregateServiceMock.lookup(TOUR_ID)).thenReturn(Optional.of(aggregate));
 
         // invoke and verify getAverageScore
         assertThat(service.getAverageScore(TOUR_ID), is(10.0));
     }
 
+    @Test
+    public void getAverageScoreNoRatings() {
+        when(aggregateServiceMock.lookup(TOUR_ID)).thenReturn(Optional.empty());
+        when(tourRepositoryMock.existsById(TOUR_ID)).thenReturn(true);
+
+        // invoke and verify getAverageScore
+        assertThat(service.getAverageScore(TOUR_ID), is((Double) null));
+    }
+
+    @Test
+    public void getAverages() {
+        TourRatingAggregate rated = new TourRatingAggregate(TOUR_ID);
+        rated.add(4, 2);
+        when(aggregateServiceMock.lookupAll(Set.of(TOUR_ID, 2, 3))).thenReturn(Map.of(TOUR_ID, rated));
+        when(tourRepositoryMock.findExistingIds(Set.of(2, 3))).thenReturn(Set.of(2));
+
+        // invoke and verify getAverages reports each id, in request order and once
+        List<TourAverageDto> averages = service.getAverages(List.of(3, TOUR_ID, 2, TOUR_ID));
+        assertThat(averages, is(List.of(
+                new TourAverageDto(3, TourAverageDto.Status.UNKNOWN_TOUR, null, 0, Map.of()),
+                new TourAverageDto(TOUR_ID, TourAverageDto.Status.RATED, 4.0, 2, Map.of(4, 2L)),
+                new TourAverageDto(2, TourAverageDto.Status.NOT_RATED, null, 0, Map.of()))));
+    }
+
     @Test
     public void lookupRatings() {
         // create mocks of Pageable and Page (only needed in this test)
         List list = mock(List.class);
-        when(tourRepositoryMock.findById(TOUR_ID)).thenReturn(Optional.of(tourMock));
-        when(tourMock.getId()).thenReturn(TOUR_ID);
+        when(tourRepositoryMock.existsById(TOUR_ID)).thenReturn(true);
 
-        when(tourRatingRepositoryMock.findByTourId(TOUR_ID)).thenReturn(list);
+        when(tourRatingRepositoryMock.findRatingsByTourId(TOUR_ID)).thenReturn(list);
 
         // invoke and verify lookupRatings
         assertThat(service.lookupRatings(TOUR_ID), is(list));
     }
 
+    @Test
+    public void lookupRatingsPage() {
+        TourRatingRepository.RatingRow first = mock(TourRatingRepository.RatingRow.class);
+        TourRatingRepository.RatingRow last = mock(TourRatingRepository.RatingRow.class);
+        when(tourRepositoryMock.existsById(TOUR_ID)).thenReturn(true);
+        when(tourRatingRepositoryMock.findByTourIdAndIdGreaterThanOrderByIdAsc(TOUR_ID, 7, Limit.of(2)))
+                .thenReturn(List.of(first, last));
+        when(last.getId()).thenReturn(9);
+
+        // invoke and verify lookupRatings continues after the token and hands out the next one
+        KeysetPage<RatingDto> page = service.lookupRatings(TOUR_ID, KeysetPage.encode(7), 2);
+        assertThat(page.content().size(), is(2));
+        assertThat(KeysetPage.decode(page.next()), is(9));
+    }
+
+    @Test
+    public void lookupCustomerRatings() {
+        TourRatingRepository.CustomerRatingRow row = mock(TourRatingRepository.CustomerRatingRow.class);
+        when(row.getId()).thenReturn(12);
+        when(tourRatingRepositoryMock.findByCustomerIdAndIdGreaterThanOrderByIdAsc(CUSTOMER_ID, 0, Limit.of(1)))
+                .thenReturn(List.of(row));
+
+        // invoke and verify the first page hands out a token continuing after the last rating
+        KeysetPage<CustomerRatingDto> page = service.lookupCustomerRatings(CUSTOMER_ID, null, 1);
+        assertThat(page.content().size(), is(1));
+        assertThat(KeysetPage.decode(page.next()), is(12));
+    }
+
     /**************************************************************************************
      *
      * Verify the invocation of dependencies.
@@ -112,21 +184,45 @@ public class TourRatingServiceTest {
 
         // verify tourRatingRepository.delete invoked
         verify(tourRatingRepositoryMock).delete(any(TourRating.class));
+        verify(aggregateServiceMock).recordRemoved(TOUR_ID, 0);
+        verify(eventPublisherMock).publishEvent(new TourRatingService.RatingsChanged(TOUR_ID));
     }
 
     @Test
     public void rateMany() {
         when(tourRepositoryMock.findById(TOUR_ID)).thenReturn(Optional.of(tourMock));
-        when(tourRatingRepositoryMock.findByTourIdAndCustomerId(TOUR_ID, CUSTOMER_ID))
-                .thenReturn(Optional.empty());
-        when(tourRatingRepositoryMock.findByTourIdAndCustomerId(TOUR_ID, CUSTOMER_ID + 1))
-                .thenReturn(Optional.empty());
+        when(tourRatingRepositoryMock.findRatedCustomerIds(TOUR_ID, List.of(CUSTOMER_ID, CUSTOMER_ID + 1)))
+                .thenReturn(Set.of());
 
         // invoke rateMany
-        service.rateMany(TOUR_ID, 10, List.of(CUSTOMER_ID, CUSTOMER_ID + 1));
+        BatchRatingReport report = service.rateMany(TOUR_ID, 10, List.of(CUSTOMER_ID, CUSTOMER_ID + 1));
+
+        // verify both ratings saved in a single saveAll
+        verify(tourRatingRepositoryMock).saveAll(ratingsCaptor.capture());
+        assertThat(ratingsCaptor.getValue().size(), is(2));
+        assertThat(report.created(), is(2));
+        assertThat(meterRegistry.get("explorecali.ratings.batch.size").tag("operation", "rateMany")
+                .summary().totalAmount(), is(2.0));
+        verify(aggregateServiceMock).recordNew(TOUR_ID, 10, 2);
+    }
+
+    @Test
+    public void rateManySkipsDuplicates() {
+        List<Integer> customers = List.of(CUSTOMER_ID, CUSTOMER_ID + 1, CUSTOMER_ID + 1);
+        when(tourRepositoryMock.findById(TOUR_ID)).thenReturn(Optional.of(tourMock));
+        when(tourRatingRepositoryMock.findRatedCustomerIds(TOUR_ID, customers)).thenReturn(Set.of(CUSTOMER_ID));
 
-        // verify tourRatingRepository.save invoked twice
-        verify(tourRatingRepositoryMock, times(2)).save(any(TourRating.class));
+        // invoke rateMany
+        BatchRatingReport report = service.rateMany(TOUR_ID, 3, customers);
+
+        // verify only the new customer is saved and every customer is reported
+        verify(tourRatingRepositoryMock).saveAll(ratingsCaptor.capture());
+        assertThat(ratingsCaptor.getValue().size(), is(1));
+        assertThat(report.skipped(), is(2));
+        assertThat(report.outcomes().stream().map(BatchRatingReport.CustomerOutcome::outcome).toList(),
+                is(List.of(BatchRatingReport.Outcome.ALREADY_RATED, BatchRatingReport.Outcome.CREATED,
+                        BatchRatingReport.Outcome.DUPLICATE_IN_REQUEST)));
+        verify(aggregateServiceMock).recordNew(TOUR_ID, 3, 1);
     }
 
     @Test
@@ -143,6 +239,8 @@ public class TourRatingServiceTest {
         // verify and tourRating setter methods invoked
         verify(tourRatingMock).setComment("great");
         verify(tourRatingMock).setScore(5);
+        verify(aggregateServiceMock).recordChanged(TOUR_ID, 0, 5);
+        verify(eventPublisherMock).publishEvent(new TourRatingService.RatingsChanged(TOUR_ID));
     }
 
     @Test
@@ -159,6 +257,7 @@ public class TourRatingServiceTest {
         // verify and tourRating setter methods invoked
         verify(tourRatingMock).setComment("awful");
         verify(tourRatingMock).setScore(1);
+        verify(aggregateServiceMock).recordChanged(TOUR_ID, 0, 1);
     }
 
     /**************************************************************************************
@@ -187,6 +286,7 @@ public class TourRatingServiceTest {
         assertThat(tourRatingCaptor.getValue().getCustomerId(), is(CUSTOMER_ID));
         assertThat(tourRatingCaptor.getValue().getScore(), is(2));
         assertThat(tourRatingCaptor.getValue().getComment(), is("ok"));
+        verify(aggregateServiceMock).recordNew(TOUR_ID, 2, 1);
     }
 
     /**
@@ -194,7 +294,7 @@ public class TourRatingServiceTest {
      */
     @Test
     public void testNotFound() {
-        when(tourRepositoryMock.findById(TOUR_ID)).thenReturn(Optional.empty());
+        when(tourRepositoryMock.existsById(TOUR_ID)).thenReturn(false);
 
         assertThrows(NoSuchElementException.class, () ->
                 service.lookupRatings(TOUR_ID)
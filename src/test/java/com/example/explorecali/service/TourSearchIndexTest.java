@@ -0,0 +1,107 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.dto.TourSummaryDto;
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.model.Tour;
+import com.example.explorecali.model.TourPackage;
+import com.example.explorecali.repository.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TourSearchIndexTest {
+
+    @Mock
+    private TourRepository tourRepositoryMock;
+
+    @InjectMocks
+    private TourSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        when(tourRepositoryMock.findAllIndexable()).thenReturn(List.of(
+                tour(1, "Big Sur Retreat", "Hiking, Big Sur", Difficulty.Medium, Region.Central_Coast, "BC"),
+                tour(2, "In the Steps of John Muir", "Hiking, Yosemite", Difficulty.Difficult,
+                        Region.Northern_California, "BC"),
+                tour(3, "Olive Oil Tasting", "Tasting, Olive Oil", Difficulty.Easy, Region.Central_Coast, "TC")));
+        index.rebuild();
+    }
+
+    @Test
+    public void searchAllTerms() {
+        assertThat(ids(index.search("hiking big", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(1)));
+    }
+
+    @Test
+    public void searchAnyTerm() {
+        assertThat(ids(index.search("yosemite, olive", TourSearchIndex.Match.ANY, null, null, null, 10)),
+                is(List.of(2, 3)));
+    }
+
+    @Test
+    public void searchWithFilters() {
+        assertThat(ids(index.search(null, TourSearchIndex.Match.ALL, null, Region.Central_Coast, "TC", 10)),
+                is(List.of(3)));
+        assertThat(ids(index.search("hiking", TourSearchIndex.Match.ALL, Difficulty.Difficult, null, null, 10)),
+                is(List.of(2)));
+        assertThat(ids(index.search("hiking", TourSearchIndex.Match.ALL, null, null, null, 1)), is(List.of(1)));
+    }
+
+    @Test
+    public void indexNewAndChangedTours() {
+        TourPackage backpack = new TourPackage("BC", "Backpack Cal");
+        Tour added = mock(Tour.class);
+        when(added.getId()).thenReturn(4);
+        when(added.getTitle()).thenReturn("Yosemite Valley");
+        when(added.getKeywords()).thenReturn("Camping");
+        when(added.getTourPackage()).thenReturn(backpack);
+        index.index(added);
+        assertThat(ids(index.search("yosemite", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(2, 4)));
+
+        when(added.getTitle()).thenReturn("Mono Lake");
+        index.index(added);
+        assertThat(ids(index.search("yosemite", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(2)));
+        assertThat(ids(index.search("mono camping", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(4)));
+    }
+
+    @Test
+    public void removeDeletedTours() {
+        index.remove(2);
+        index.remove(5);
+
+        assertThat(ids(index.search("hiking", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(1)));
+        assertThat(ids(index.search("muir", TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of()));
+        assertThat(ids(index.search(null, TourSearchIndex.Match.ALL, null, null, null, 10)), is(List.of(1, 3)));
+        assertThat(index.lookup(2).isPresent(), is(false));
+    }
+
+    private static List<Integer> ids(List<TourSummaryDto> tours) {
+        return tours.stream().map(TourSummaryDto::id).toList();
+    }
+
+    private static TourRepository.IndexableTour tour(int id, String title, String keywords, Difficulty difficulty,
+                                                     Region region, String packageCode) {
+        return new TourRepository.IndexableTour() {
+            public Integer getId() { return id; }
+            public String getTitle() { return title; }
+            public String getKeywords() { return keywords; }
+            public Integer getPrice() { return 100; }
+            public String getDuration() { return "1 day"; }
+            public Difficulty getDifficulty() { return difficulty; }
+            public Region getRegion() { return region; }
+            public String getPackageCode() { return packageCode; }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.explorecali.service;
+
+import com.example.explorecali.model.Difficulty;
+import com.example.explorecali.model.Region;
+import com.example.explorecali.repository.TourRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@Transactional
+public class TourServiceCacheTest {
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoSpyBean
+    private TourRepository tourRepositorySpy;
+
+    @BeforeEach
+    public void setUp() {
+        clearCaches();
+        clearInvocations(tourRepositorySpy);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clearCaches();
+    }
+
+    @Test
+    public void repeatLookupsAreCached() {
+        tourService.lookupByDifficulty(Difficulty.Easy);
+        tourService.lookupByDifficulty(Difficulty.Easy);
+        tourService.lookupByPackage("BC");
+        tourService.lookupByPackage("BC");
+
+        verify(tourRepositorySpy, times(1)).findSummariesByDifficulty(Difficulty.Easy);
+        verify(tourRepositorySpy, times(1)).findSummariesByPackageCode("BC");
+    }
+
+    @Test
+    public void createTourEvicts() {
+        tourService.lookupByDifficulty(Difficulty.Easy);
+        tourService.createTour("Backpack Cal", "Cache Test Tour", "d", "b", 100, "1 day", "x", "Hiking",
+                Difficulty.Easy, Region.Varies);
+        tourService.lookupByDifficulty(Difficulty.Easy);
+
+        verify(tourRepositorySpy, times(2)).findSummariesByDifficulty(Difficulty.Easy);
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(TourService.TOURS_BY_DIFFICULTY).clear();
+        cacheManager.getCache(TourService.TOURS_BY_PACKAGE).clear();
+    }
+}